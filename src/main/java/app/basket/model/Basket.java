@@ -1,5 +1,6 @@
 package app.basket.model;
 
+import app.product.model.Money;
 import app.user.model.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -27,15 +28,30 @@ public class Basket {
     @ManyToOne
     private User user;
 
-    @OneToMany(mappedBy = "basket", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "basket", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<BasketItem> items = new ArrayList<>();
 
+    // In minor units (cents); converted to BigDecimal only in the API response.
     @Column(nullable = false)
-    private BigDecimal totalPrice = BigDecimal.ZERO;
+    private long totalPriceMinor;
+
+    // Legacy column that existing schemas still declare NOT NULL. It mirrors totalPriceMinor until a
+    // migration drops it, so inserts keep working under MySQL strict mode.
+    @Column(name = "total_price", nullable = false)
+    private BigDecimal totalPrice;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    @Version
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void mirrorLegacyTotal() {
+        totalPrice = Money.toDecimal(totalPriceMinor);
+    }
 }
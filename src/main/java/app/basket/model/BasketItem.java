@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -14,13 +15,17 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = BasketItem.UNIQUE_PRODUCT_CONSTRAINT, columnNames = {"basket_id", "product_id"}))
 public class BasketItem {
 
+    // One line per product and basket; a concurrent add of the same product trips it.
+    public static final String UNIQUE_PRODUCT_CONSTRAINT = "uk_basket_item_basket_product";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
@@ -29,4 +34,12 @@ public class BasketItem {
     private Basket basket;
 
     private int quantity = 1;
+
+    // Sale price in minor units at the time the line was added.
+    @Column(nullable = false)
+    private long unitPriceMinor;
+
+    // Stock for this line is held until then; after that the sweeper gives it back to the catalog.
+    @Column
+    private LocalDateTime reservedUntil;
 }
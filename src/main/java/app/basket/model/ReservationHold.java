@@ -0,0 +1,7 @@
+package app.basket.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ReservationHold(UUID basketItemId, LocalDateTime reservedUntil) {
+}
@@ -1,11 +1,33 @@
 package app.basket.repository;
 
 import app.basket.model.BasketItem;
+import app.basket.model.ReservationHold;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface BasketItemRepository extends JpaRepository<BasketItem, UUID> {
+
+    // Served by the unique (basket_id, product_id) index, so only the matching line is read.
+    Optional<BasketItem> findByBasketIdAndProductId(UUID basketId, UUID productId);
+
+    @Query("SELECT new app.basket.model.ReservationHold(i.id, i.reservedUntil) FROM BasketItem i")
+    List<ReservationHold> findAllReservationHolds();
+
+    @Query("SELECT i FROM BasketItem i JOIN FETCH i.basket JOIN FETCH i.product WHERE i.id IN :ids")
+    List<BasketItem> findAllWithBasketByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Lines created before unit prices were stored got 0 when the column was added; they take the current sale price.
+    @Modifying
+    @Query(value = "UPDATE basket_item SET unit_price_minor = (SELECT ROUND(p.sale_price * 100) FROM product p WHERE p.id = basket_item.product_id) "
+            + "WHERE unit_price_minor = 0 AND EXISTS (SELECT 1 FROM product p WHERE p.id = basket_item.product_id AND p.sale_price IS NOT NULL)", nativeQuery = true)
+    int backfillUnitPrices();
 }
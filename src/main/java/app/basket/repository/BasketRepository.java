@@ -3,6 +3,9 @@ package app.basket.repository;
 import app.basket.model.Basket;
 import app.user.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,7 +14,17 @@ import java.util.UUID;
 @Repository
 public interface BasketRepository extends JpaRepository<Basket, UUID> {
 
-    Optional<Basket> findByUser(User user);
+    // The basket and its owner only, for writes that touch a single line.
+    @Query("SELECT b FROM Basket b JOIN FETCH b.user WHERE b.user = :user")
+    Optional<Basket> findByUser(@Param("user") User user);
 
+    // Loads the basket, its owner, its lines and their products in one statement, however many lines there are.
+    @Query("SELECT b FROM Basket b JOIN FETCH b.user LEFT JOIN FETCH b.items i LEFT JOIN FETCH i.product WHERE b.user = :user")
+    Optional<Basket> findWithItemsByUser(@Param("user") User user);
 
+    // Baskets created before totals were stored in minor units got 0 when the column was added.
+    @Modifying
+    @Query(value = "UPDATE basket SET total_price_minor = (SELECT COALESCE(SUM(i.unit_price_minor * i.quantity), 0) FROM basket_item i WHERE i.basket_id = basket.id) "
+            + "WHERE total_price_minor = 0", nativeQuery = true)
+    int backfillTotals();
 }
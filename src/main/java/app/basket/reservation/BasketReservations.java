@@ -0,0 +1,113 @@
+package app.basket.reservation;
+
+import app.basket.model.ReservationHold;
+import app.basket.repository.BasketItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+// Tracks when each basket line's stock hold runs out. The wheel only says when to look: the sweep in
+// BasketService re-checks reservedUntil in the database, so a stale timer is harmless. A missing one is
+// not, so timers are only changed once the transaction that changed the line has committed.
+@Slf4j
+@Component
+public class BasketReservations {
+
+    private final BasketItemRepository basketItemRepository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final TimerWheel<UUID> wheel;
+
+    private final Counter expiredCounter;
+    private final Counter reclaimedCounter;
+
+    @Autowired
+    public BasketReservations(BasketItemRepository basketItemRepository, MeterRegistry meterRegistry,
+                              @Value("${app.basket.reservation.ttl:30m}") Duration ttl,
+                              @Value("${app.basket.reservation.tick:1s}") Duration tick) {
+        this.basketItemRepository = basketItemRepository;
+        this.ttl = ttl;
+        this.clock = Clock.systemDefaultZone();
+        this.wheel = new TimerWheel<>(tick.toMillis(), clock.millis());
+
+        this.expiredCounter = meterRegistry.counter("basket.reservations.expired");
+        this.reclaimedCounter = meterRegistry.counter("basket.reservations.reclaimed");
+        Gauge.builder("basket.reservations.active", wheel, TimerWheel::size).register(meterRegistry);
+    }
+
+    // Lines saved before reservations existed have no expiry yet and get a full TTL from startup.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+
+        List<ReservationHold> holds = basketItemRepository.findAllReservationHolds();
+        LocalDateTime fallback = newExpiry();
+
+        holds.forEach(hold -> hold(hold.basketItemId(), hold.reservedUntil() == null ? fallback : hold.reservedUntil()));
+
+        log.info("Scheduled {} basket reservations.", holds.size());
+    }
+
+    public LocalDateTime newExpiry() {
+
+        return LocalDateTime.now(clock).plus(ttl);
+    }
+
+    public void hold(UUID basketItemId, LocalDateTime reservedUntil) {
+
+        long dueAt = reservedUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        afterCommit(() -> wheel.schedule(basketItemId, dueAt));
+    }
+
+    public void cancel(UUID basketItemId) {
+
+        afterCommit(() -> wheel.cancel(basketItemId));
+    }
+
+    public List<UUID> due() {
+
+        return wheel.advance(clock.millis());
+    }
+
+    public LocalDateTime now() {
+
+        return LocalDateTime.now(clock);
+    }
+
+    public void reclaimed(int lines, int units) {
+
+        expiredCounter.increment(lines);
+        reclaimedCounter.increment(units);
+    }
+
+    // A basket write that is retried or rolled back must not have cancelled a hold it never removed.
+    private static void afterCommit(Runnable change) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
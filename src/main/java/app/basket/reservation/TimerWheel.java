@@ -0,0 +1,148 @@
+package app.basket.reservation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Hierarchical timing wheel: four levels of 64 slots, where a slot on level n spans 64^n ticks.
+// Scheduling and cancelling are O(1); when a lower level wraps around, the matching slot of the
+// level above is cascaded down, so each timer is touched at most once per level. Deadlines beyond
+// the top level are parked in its furthest slot and re-placed when they come due.
+public class TimerWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final List<List<Set<K>>> levels = new ArrayList<>(LEVELS);
+    private final Map<K, Timer> timers = new HashMap<>();
+
+    private long currentTick;
+
+    public TimerWheel(long tickMillis, long nowMillis) {
+
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashSet<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    // Replaces any earlier deadline for the key. Deadlines that already passed fire on the next tick.
+    public synchronized void schedule(K key, long deadlineMillis) {
+
+        cancel(key);
+
+        long deadlineTick = Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Timer timer = new Timer(deadlineTick);
+        timers.put(key, timer);
+        place(key, timer);
+    }
+
+    public synchronized void cancel(K key) {
+
+        Timer timer = timers.remove(key);
+
+        if (timer != null) {
+            levels.get(timer.level).get(timer.slot).remove(key);
+        }
+    }
+
+    public synchronized int size() {
+
+        return timers.size();
+    }
+
+    // Moves the wheel up to nowMillis and returns every key whose deadline has been reached.
+    public synchronized List<K> advance(long nowMillis) {
+
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+
+        while (currentTick < targetTick) {
+
+            currentTick++;
+
+            for (int level = 1; level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+
+            Set<K> due = levels.get(0).get((int) (currentTick & SLOT_MASK));
+
+            if (due.isEmpty()) {
+                continue;
+            }
+
+            List<K> keys = new ArrayList<>(due);
+            due.clear();
+
+            for (K key : keys) {
+                Timer timer = timers.get(key);
+                if (timer.deadlineTick <= currentTick) {
+                    timers.remove(key);
+                    expired.add(key);
+                } else {
+                    place(key, timer);
+                }
+            }
+        }
+
+        return expired;
+    }
+
+    private void cascade(int level, int slot) {
+
+        Set<K> bucket = levels.get(level).get(slot);
+
+        if (bucket.isEmpty()) {
+            return;
+        }
+
+        List<K> keys = new ArrayList<>(bucket);
+        bucket.clear();
+        keys.forEach(key -> place(key, timers.get(key)));
+    }
+
+    private void place(K key, Timer timer) {
+
+        long delta = timer.deadlineTick - currentTick;
+        long tick = delta < MAX_SPAN ? timer.deadlineTick : currentTick + MAX_SPAN - 1;
+        delta = tick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+
+        timer.level = level;
+        timer.slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        levels.get(level).get(timer.slot).add(key);
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static final class Timer {
+
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+
+        private Timer(long deadlineTick) {
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package app.basket.service;
+
+import app.basket.repository.BasketItemRepository;
+import app.basket.repository.BasketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// ddl-auto added the minor-unit price columns with 0 for every existing row, which would render old
+// lines as free. Lines take the product's current sale price, as the old totals did, and baskets are
+// then re-totalled from their lines. Only rows still at 0 are touched, so later startups change nothing.
+@Slf4j
+@Component
+public class BasketPriceBackfill {
+
+    private final BasketItemRepository basketItemRepository;
+    private final BasketRepository basketRepository;
+
+    @Autowired
+    public BasketPriceBackfill(BasketItemRepository basketItemRepository, BasketRepository basketRepository) {
+        this.basketItemRepository = basketItemRepository;
+        this.basketRepository = basketRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+
+        int lines = basketItemRepository.backfillUnitPrices();
+        int baskets = basketRepository.backfillTotals();
+
+        if (lines > 0) {
+            log.info("Backfilled unit prices of {} basket lines and totals of {} baskets.", lines, baskets);
+        }
+    }
+}
@@ -2,144 +2,462 @@ package app.basket.service;
 
 import app.basket.model.Basket;
 import app.basket.model.BasketItem;
+import app.basket.reservation.BasketReservations;
 import app.basket.repository.BasketItemRepository;
 import app.basket.repository.BasketRepository;
-import app.exception.NotEnoughInStockException;
+import app.event.ProductChangedEvent;
+import app.exception.InvalidBasketOperationException;
+import app.exception.InvalidQuantityException;
 import app.exception.ResourceNotFoundException;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Money;
 import app.product.model.Product;
 import app.product.repository.ProductRepository;
 import app.user.model.User;
-import jakarta.transaction.Transactional;
+import app.web.dto.BasketOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Every mutation runs in its own transaction through OptimisticLockRetry: Basket is versioned, so
+// two requests racing on the same basket (double-clicks, several tabs) are retried instead of
+// silently overwriting each other's lines and total.
+@Slf4j
 @Service
-@Transactional
 public class BasketService {
+
+    public static final int MAX_BATCH_OPERATIONS = 200;
+    public static final int MAX_LINE_QUANTITY = 999;
+
+    private static final int EXPIRY_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
     private final BasketRepository basketRepository;
     private final BasketItemRepository basketItemRepository;
+    private final InventoryLedger inventoryLedger;
+    private final BasketReservations basketReservations;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public BasketService(ProductRepository productRepository, BasketRepository basketRepository, BasketItemRepository basketItemRepository) {
+    public BasketService(ProductRepository productRepository, BasketRepository basketRepository, BasketItemRepository basketItemRepository,
+                         InventoryLedger inventoryLedger, BasketReservations basketReservations, OptimisticLockRetry optimisticLockRetry,
+                         ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.basketRepository = basketRepository;
         this.basketItemRepository = basketItemRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.basketReservations = basketReservations;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.eventPublisher = eventPublisher;
     }
 
     public Basket addToBasket(User user, UUID productId, int quantity) {
 
-        Product product = productRepository.findById(productId)
+        return optimisticLockRetry.execute("addToBasket", () -> tryAddToBasket(user, productId, quantity));
+    }
+
+    private Basket tryAddToBasket(User user, UUID productId, int quantity) {
+
+        Product product = productRepository.findActiveById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found."));
 
-        if (product.getCurrentQuantity() < quantity) {
-            throw new NotEnoughInStockException("Not enough stock available.");
-        }
+        checkLineLimit(quantity);
+        takeStock(product, quantity);
 
-        Basket basket = basketRepository.findByUser(user).orElseGet(() -> {
-            Basket newBasket = new Basket();
-            newBasket.setUser(user);
-            newBasket.setCreatedAt(LocalDateTime.now());
-            newBasket.setUpdatedAt(LocalDateTime.now());
-            newBasket.setTotalPrice(BigDecimal.ZERO);
-            return basketRepository.save(newBasket);
-        });
+        // Merging only needs the one line for this product, so neither the other lines nor their products are loaded here.
+        Basket basket = basketRepository.findByUser(user).orElseGet(() -> newBasket(user));
 
-        Optional<BasketItem> existingItem = basket.getItems().stream()
-                .filter(basketItem -> basketItem.getProduct().getId().equals(productId))
-                .findFirst();
+        Optional<BasketItem> existingItem = basketItemRepository.findByBasketIdAndProductId(basket.getId(), productId);
+
+        BasketItem basketItem;
 
         if (existingItem.isPresent()) {
-            BasketItem basketItem = existingItem.get();
-            basketItem.setQuantity(basketItem.getQuantity() + quantity);
+            basketItem = existingItem.get();
+            basketItem.setQuantity(addLineQuantities(basketItem.getQuantity(), quantity));
+            basketItem.setReservedUntil(basketReservations.newExpiry());
 
         } else {
-            BasketItem newBasketItem = new BasketItem();
-            newBasketItem.setProduct(product);
-            newBasketItem.setQuantity(quantity);
-            newBasketItem.setBasket(basket);
-            basket.getItems().add(newBasketItem);
-            basketItemRepository.save(newBasketItem);
+            basketItem = newBasketItem(basket, product, quantity);
         }
 
-        product.setCurrentQuantity(product.getCurrentQuantity() - quantity);
-        productRepository.save(product);
+        basketReservations.hold(basketItem.getId(), basketItem.getReservedUntil());
+        adjustTotal(basket, basketItem, quantity);
+        basketRepository.save(basket);
+
+        return findUserBasket(user);
+    }
+
+    private Basket newBasket(User user) {
 
-        BigDecimal updatedTotalPrice = calculateTotalPrice(basket);
-        basket.setTotalPrice(updatedTotalPrice);
+        Basket basket = new Basket();
+        basket.setUser(user);
+        basket.setCreatedAt(LocalDateTime.now());
         basket.setUpdatedAt(LocalDateTime.now());
+        basket.setTotalPriceMinor(0);
 
         return basketRepository.save(basket);
     }
 
-    public BigDecimal calculateTotalPrice(Basket basket) {
-        return basket.getItems().stream()
-                .map(this::getItemTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private BasketItem newBasketItem(Basket basket, Product product, int quantity) {
+
+        BasketItem basketItem = new BasketItem();
+        basketItem.setProduct(product);
+        basketItem.setQuantity(quantity);
+        basketItem.setUnitPriceMinor(unitPriceOf(product));
+        basketItem.setBasket(basket);
+        basketItem.setReservedUntil(basketReservations.newExpiry());
+        basketItemRepository.save(basketItem);
+
+        // An unloaded collection is left alone; the rendering query reads the new line from the table.
+        if (Hibernate.isInitialized(basket.getItems())) {
+            basket.getItems().add(basketItem);
+        }
+
+        return basketItem;
     }
 
-    public BigDecimal getItemTotalPrice(BasketItem basketItem) {
+    // A product without a sale price cannot be sold; it must not end up in a basket for free.
+    private static long unitPriceOf(Product product) {
+
+        if (product.getSalePrice() == null) {
+            throw new InvalidBasketOperationException("Product has no sale price.");
+        }
 
-        return basketItem.getProduct().getSalePrice().multiply(BigDecimal.valueOf(basketItem.getQuantity()));
+        return Money.toMinor(product.getSalePrice());
     }
 
+    // Totals are kept in minor units and moved by the changed line only, instead of re-summing every line.
+    // A line keeps the unit price it was added at, so the total always equals the sum of its lines.
+    private void adjustTotal(Basket basket, BasketItem basketItem, int quantityDelta) {
+
+        basket.setTotalPriceMinor(basket.getTotalPriceMinor() + basketItem.getUnitPriceMinor() * quantityDelta);
+        basket.setUpdatedAt(LocalDateTime.now());
+    }
 
     public Basket updateBasketItemQuantity(User user, UUID basketItemId, int newQuantity) {
 
-        Basket basket = basketRepository.findByUser(user).orElseThrow(() -> new ResourceNotFoundException("Basket not found."));
+        return optimisticLockRetry.execute("updateBasketItemQuantity", () -> tryUpdateBasketItemQuantity(user, basketItemId, newQuantity));
+    }
+
+    private Basket tryUpdateBasketItemQuantity(User user, UUID basketItemId, int newQuantity) {
+
+        // The ledger only sees the difference, so a non-positive target would hand back stock that was never taken.
+        if (newQuantity < 1) {
+            throw new InvalidQuantityException("Quantity must be positive.");
+        }
+        checkLineLimit(newQuantity);
+
+        Basket basket = basketRepository.findWithItemsByUser(user).orElseThrow(() -> new ResourceNotFoundException("Basket not found."));
 
-        BasketItem basketItem = basketItemRepository.findById(basketItemId).orElseThrow(() -> new ResourceNotFoundException("BasketItem not found."));
+        BasketItem basketItem = findBasketItem(basket, basketItemId);
 
         Product product = basketItem.getProduct();
         int oldQuantity = basketItem.getQuantity();
         int quantityDifference = newQuantity - oldQuantity;
 
-        if (quantityDifference > 0 && product.getCurrentQuantity() < quantityDifference) {
-            throw new NotEnoughInStockException("Not enough stock available.");
+        if (quantityDifference > 0) {
+            takeStock(product, quantityDifference);
+        } else if (quantityDifference < 0) {
+            returnStock(product, -quantityDifference);
         }
 
-        product.setCurrentQuantity(product.getCurrentQuantity() - quantityDifference);
-        productRepository.save(product);
-
         basketItem.setQuantity(newQuantity);
+        basketItem.setReservedUntil(basketReservations.newExpiry());
         basketItemRepository.save(basketItem);
-
-        BigDecimal updatedTotalPrice = calculateTotalPrice(basket);
-        basket.setTotalPrice(updatedTotalPrice);
-        basket.setUpdatedAt(LocalDateTime.now());
+        basketReservations.hold(basketItem.getId(), basketItem.getReservedUntil());
+        adjustTotal(basket, basketItem, quantityDifference);
 
         return basketRepository.save(basket);
     }
 
     public Basket removeBasketItem(User user, UUID basketItemId) {
 
-        Basket basket = basketRepository.findByUser(user)
+        return optimisticLockRetry.execute("removeBasketItem", () -> tryRemoveBasketItem(user, basketItemId));
+    }
+
+    private Basket tryRemoveBasketItem(User user, UUID basketItemId) {
+
+        Basket basket = basketRepository.findWithItemsByUser(user)
                 .orElseThrow(() -> new ResourceNotFoundException("Basket not found."));
 
-        BasketItem basketItem = basketItemRepository.findById(basketItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("BasketItem not found."));
+        BasketItem basketItem = findBasketItem(basket, basketItemId);
 
-        Product product = basketItem.getProduct();
-        product.setCurrentQuantity(product.getCurrentQuantity() + basketItem.getQuantity());
-        productRepository.save(product);
+        returnStock(basketItem.getProduct(), basketItem.getQuantity());
 
         basket.getItems().remove(basketItem);
         basketItemRepository.delete(basketItem);
+        basketReservations.cancel(basketItemId);
+        adjustTotal(basket, basketItem, -basketItem.getQuantity());
 
-        BigDecimal updatedTotalPrice = calculateTotalPrice(basket);
-        basket.setTotalPrice(updatedTotalPrice);
-        basket.setUpdatedAt(LocalDateTime.now());
+        return basketRepository.save(basket);
+    }
+
+    public Basket applyOperations(User user, List<BasketOperation> operations) {
+
+        if (operations == null || operations.isEmpty()) {
+            throw new InvalidBasketOperationException("At least one basket operation is required.");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new InvalidBasketOperationException("At most " + MAX_BATCH_OPERATIONS + " basket operations are allowed per request.");
+        }
+
+        return optimisticLockRetry.execute("applyBasketOperations", () -> tryApplyOperations(user, operations));
+    }
+
+    // The operations are first folded, in order, into the target quantity of every product, and only the
+    // difference to the current basket is written: one ledger movement and one line change per product,
+    // whatever sequence of adds, quantity changes and removals led there. Any invalid operation or
+    // missing stock rolls the whole batch back.
+    private Basket tryApplyOperations(User user, List<BasketOperation> operations) {
+
+        Basket basket = basketRepository.findWithItemsByUser(user).orElseGet(() -> newBasket(user));
+
+        Map<UUID, BasketItem> linesByProduct = new HashMap<>();
+        Map<UUID, UUID> productByLine = new HashMap<>();
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+
+        for (BasketItem basketItem : basket.getItems()) {
+            linesByProduct.put(basketItem.getProduct().getId(), basketItem);
+            productByLine.put(basketItem.getId(), basketItem.getProduct().getId());
+            quantities.put(basketItem.getProduct().getId(), basketItem.getQuantity());
+        }
+
+        Map<UUID, Product> addedProducts = findProductsToAdd(operations);
+        Set<UUID> touched = new LinkedHashSet<>();
+
+        for (BasketOperation operation : operations) {
+
+            if (operation.getType() == null) {
+                throw new InvalidBasketOperationException("Basket operation type is required.");
+            }
+
+            if (operation.getType() != BasketOperation.Type.REMOVE) {
+                checkLineQuantity(operation.getQuantity());
+            }
+
+            UUID productId = switch (operation.getType()) {
+                case ADD -> {
+                    if (operation.getProductId() == null || !addedProducts.containsKey(operation.getProductId())) {
+                        throw new ResourceNotFoundException("Product not found.");
+                    }
+                    quantities.merge(operation.getProductId(), operation.getQuantity(), BasketService::addLineQuantities);
+                    yield operation.getProductId();
+                }
+                case SET_QUANTITY -> {
+                    UUID lineProductId = findLineProduct(operation, productByLine, quantities);
+                    quantities.put(lineProductId, operation.getQuantity());
+                    yield lineProductId;
+                }
+                case REMOVE -> {
+                    UUID lineProductId = findLineProduct(operation, productByLine, quantities);
+                    quantities.remove(lineProductId);
+                    yield lineProductId;
+                }
+            };
+
+            touched.add(productId);
+        }
+
+        for (UUID productId : touched) {
+
+            BasketItem basketItem = linesByProduct.get(productId);
+            int oldQuantity = basketItem == null ? 0 : basketItem.getQuantity();
+            int newQuantity = quantities.getOrDefault(productId, 0);
+            int quantityDifference = newQuantity - oldQuantity;
+            Product product = basketItem == null ? addedProducts.get(productId) : basketItem.getProduct();
+
+            if (quantityDifference > 0) {
+                takeStock(product, quantityDifference);
+            } else if (quantityDifference < 0) {
+                returnStock(product, -quantityDifference);
+            }
+
+            if (basketItem == null) {
+                if (newQuantity > 0) {
+                    basketItem = newBasketItem(basket, product, newQuantity);
+                    adjustTotal(basket, basketItem, newQuantity);
+                    basketReservations.hold(basketItem.getId(), basketItem.getReservedUntil());
+                }
+            } else if (newQuantity == 0) {
+                basket.getItems().remove(basketItem);
+                basketItemRepository.delete(basketItem);
+                basketReservations.cancel(basketItem.getId());
+                adjustTotal(basket, basketItem, -oldQuantity);
+            } else {
+                basketItem.setQuantity(newQuantity);
+                basketItem.setReservedUntil(basketReservations.newExpiry());
+                basketReservations.hold(basketItem.getId(), basketItem.getReservedUntil());
+                adjustTotal(basket, basketItem, quantityDifference);
+            }
+        }
 
         return basketRepository.save(basket);
     }
 
+    // Folded quantities drive ledger movements directly, so they must never wrap around or leave the per-line range.
+    private static int addLineQuantities(int current, int added) {
+
+        try {
+            return checkLineQuantity(Math.addExact(current, added));
+        } catch (ArithmeticException e) {
+            throw new InvalidBasketOperationException("Basket line quantity must not exceed " + MAX_LINE_QUANTITY + ".");
+        }
+    }
+
+    private static int checkLineQuantity(int quantity) {
+
+        if (quantity < 1) {
+            throw new InvalidBasketOperationException("Basket operation quantity must be at least 1.");
+        }
+        checkLineLimit(quantity);
+
+        return quantity;
+    }
+
+    // Single adds and quantity changes are held to the same per-line bound as the batch endpoint.
+    private static void checkLineLimit(int quantity) {
+
+        if (quantity > MAX_LINE_QUANTITY) {
+            throw new InvalidBasketOperationException("Basket line quantity must not exceed " + MAX_LINE_QUANTITY + ".");
+        }
+    }
+
+    private Map<UUID, Product> findProductsToAdd(List<BasketOperation> operations) {
+
+        Set<UUID> productIds = operations.stream()
+                .filter(operation -> operation.getType() == BasketOperation.Type.ADD && operation.getProductId() != null)
+                .map(BasketOperation::getProductId)
+                .collect(Collectors.toSet());
+
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    // Lines added earlier in the same batch have no id the client could know, so a line can also be named by its product.
+    private UUID findLineProduct(BasketOperation operation, Map<UUID, UUID> productByLine, Map<UUID, Integer> quantities) {
+
+        UUID productId = operation.getBasketItemId() != null ? productByLine.get(operation.getBasketItemId()) : operation.getProductId();
+
+        if (productId == null || !quantities.containsKey(productId)) {
+            throw new ResourceNotFoundException("BasketItem not found.");
+        }
+
+        return productId;
+    }
+
+    // With incremental totals a line from another basket must not be applied to this one.
+    private BasketItem findBasketItem(Basket basket, UUID basketItemId) {
+
+        return basketItemRepository.findById(basketItemId)
+                .filter(basketItem -> basketItem.getBasket().getId().equals(basket.getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("BasketItem not found."));
+    }
+
+    // Gives back the stock of basket lines whose hold has run out. Due lines are handled in batches of one
+    // transaction each: the lines are deleted together, their baskets' totals are reduced by the line
+    // amounts and the stock goes back to the ledger as a single movement per product.
+    @Scheduled(fixedDelayString = "${app.basket.reservation.sweep-interval:1000}")
+    public int releaseExpiredReservations() {
+
+        List<UUID> due = basketReservations.due();
+        int releasedLines = 0;
+        int releasedUnits = 0;
+
+        for (int from = 0; from < due.size(); from += EXPIRY_BATCH_SIZE) {
+
+            List<UUID> batch = due.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, due.size()));
+
+            try {
+                List<BasketItem> released = optimisticLockRetry.execute("releaseExpiredReservations", () -> releaseExpired(batch));
+                releasedLines += released.size();
+                releasedUnits += released.stream().mapToInt(BasketItem::getQuantity).sum();
+            } catch (RuntimeException e) {
+                log.warn("Releasing {} expired basket reservations failed, retrying on the next sweep: {}", batch.size(), e.getMessage());
+                LocalDateTime retryAt = basketReservations.now();
+                batch.forEach(basketItemId -> basketReservations.hold(basketItemId, retryAt));
+            }
+        }
+
+        if (releasedLines > 0) {
+            basketReservations.reclaimed(releasedLines, releasedUnits);
+        }
+
+        return releasedLines;
+    }
+
+    private List<BasketItem> releaseExpired(List<UUID> basketItemIds) {
+
+        LocalDateTime now = basketReservations.now();
+
+        List<BasketItem> expired = new ArrayList<>();
+        Map<UUID, Product> products = new HashMap<>();
+        Map<UUID, Integer> releasedStock = new HashMap<>();
+
+        for (BasketItem basketItem : basketItemRepository.findAllWithBasketByIdIn(basketItemIds)) {
+
+            // The hold was extended after this timer was set; wait for the new expiry instead.
+            if (basketItem.getReservedUntil() != null && basketItem.getReservedUntil().isAfter(now)) {
+                basketReservations.hold(basketItem.getId(), basketItem.getReservedUntil());
+                continue;
+            }
+
+            expired.add(basketItem);
+
+            Basket basket = basketItem.getBasket();
+            basket.getItems().remove(basketItem);
+            adjustTotal(basket, basketItem, -basketItem.getQuantity());
+
+            Product product = basketItem.getProduct();
+            products.put(product.getId(), product);
+            releasedStock.merge(product.getId(), basketItem.getQuantity(), Integer::sum);
+        }
+
+        releasedStock.forEach((productId, quantity) -> returnStock(products.get(productId), quantity));
+
+        return expired;
+    }
+
+    // Stock is taken from and returned to the in-memory inventory ledger, which journals the movement
+    // in this transaction and writes it behind to the product row, so baskets never contend on it.
+    private void takeStock(Product product, int quantity) {
+
+        int remaining = inventoryLedger.reserve(product.getId(), quantity);
+        publishStockChange(product, remaining);
+    }
+
+    private void returnStock(Product product, int quantity) {
+
+        inventoryLedger.release(product.getId(), quantity).ifPresent(remaining -> publishStockChange(product, remaining));
+    }
+
+    private void publishStockChange(Product product, int currentQuantity) {
+
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, product).withCurrentQuantity(currentQuantity));
+    }
+
     public Basket findUserBasket(User user) {
 
-        return basketRepository.findByUser(user).orElseThrow(() -> new ResourceNotFoundException("Basket not found."));
+        return basketRepository.findWithItemsByUser(user).orElseThrow(() -> new ResourceNotFoundException("Basket not found."));
     }
 
 }
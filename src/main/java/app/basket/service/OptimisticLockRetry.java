@@ -0,0 +1,98 @@
+package app.basket.service;
+
+import app.basket.model.BasketItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a unit of work in its own transaction and re-runs it when the commit loses an optimistic
+// version check. Backoff is exponential with full jitter so that tabs racing on the same basket
+// spread out instead of colliding again. Retries and exhausted conflicts are counted per operation.
+// A violation of the basket line's unique key is treated the same way: two tabs inserting the same
+// line race like a version conflict, and the retry finds the committed line and merges into it.
+// Any other integrity violation is a bug or bad data, and is rethrown without retrying or counting.
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+
+    @Autowired
+    public OptimisticLockRetry(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                               @Value("${app.basket.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${app.basket.retry.backoff:10ms}") Duration baseBackoff) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoff.toMillis();
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+
+        for (int attempt = 1; ; attempt++) {
+
+            try {
+                return transactionTemplate.execute(status -> work.get());
+
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+
+                if (e instanceof DataIntegrityViolationException && !isDuplicateBasketLine(e)) {
+                    throw e;
+                }
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("basket.optimistic.conflicts", "operation", operation).increment();
+                    log.warn("{} gave up after {} conflicting attempts.", operation, attempt);
+                    throw e;
+                }
+
+                meterRegistry.counter("basket.optimistic.retries", "operation", operation).increment();
+
+                if (!backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Constraint names come back in the database's case, and H2 also suffixes the index name.
+    private static boolean isDuplicateBasketLine(Throwable e) {
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraintName = violation.getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase(Locale.ROOT).contains(BasketItem.UNIQUE_PRODUCT_CONSTRAINT);
+            }
+        }
+
+        return false;
+    }
+
+    private boolean backOff(int attempt) {
+
+        long ceiling = baseBackoffMillis << Math.min(attempt - 1, 10);
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
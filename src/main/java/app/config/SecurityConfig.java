@@ -6,6 +6,7 @@ import app.security.JwtFilter;
 import app.user.repository.UserRepository;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -46,6 +47,8 @@ public class SecurityConfig {
                                 "/v3/api-docs/**",
                                 "/v3/api-docs.yaml"
                         ).permitAll() // Public endpoints
+                        .requestMatchers(HttpMethod.GET, "/api/v1/images/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated() // Secure all other endpoints
                 )
                 .httpBasic(Customizer.withDefaults())
@@ -62,6 +65,7 @@ public class SecurityConfig {
         config.setAllowedOrigins(List.of("http://localhost:4200", "https://gutov.net")); // Dev & Prod URLs
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        config.setExposedHeaders(List.of("ETag", "X-Next-Cursor"));
         config.setAllowCredentials(true); // Allow cookies, JWT, etc.
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
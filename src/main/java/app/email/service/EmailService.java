@@ -37,10 +37,7 @@ public class EmailService {
 
             sendRestockAlert(lowStockProducts);
 
-            for (Product product : lowStockProducts) {
-                product.setRestockAlertSent(true);
-            }
-            productRepository.saveAll(lowStockProducts);
+            productRepository.markRestockAlertSent(lowStockProducts.stream().map(Product::getId).toList());
 
             log.info("Restock-Alert sent für {} products.", lowStockProducts.size());
         }
@@ -0,0 +1,28 @@
+package app.event;
+
+import app.product.model.Product;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ProductChangedEvent(Type type, UUID productId, String name, String description, String category, BigDecimal salePrice,
+                                  String image, String imageHash, int currentQuantity) {
+
+    public enum Type {
+        CREATED,
+        QUANTITY_CHANGED,
+        REMOVED
+    }
+
+    public static ProductChangedEvent of(Type type, Product product) {
+
+        return new ProductChangedEvent(type, product.getId(), product.getName(), product.getDescription(), product.getCategory(),
+                product.getSalePrice(), product.getImage(), product.getImageHash(), product.getCurrentQuantity());
+    }
+
+    // Stock is owned by the inventory ledger, which can be ahead of the quantity on the entity.
+    public ProductChangedEvent withCurrentQuantity(int quantity) {
+
+        return new ProductChangedEvent(type, productId, name, description, category, salePrice, image, imageHash, quantity);
+    }
+}
@@ -0,0 +1,7 @@
+package app.exception;
+
+public class InvalidBasketOperationException extends RuntimeException {
+    public InvalidBasketOperationException(String message) {
+        super(message);
+    }
+}
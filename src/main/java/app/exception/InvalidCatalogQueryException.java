@@ -0,0 +1,7 @@
+package app.exception;
+
+public class InvalidCatalogQueryException extends RuntimeException {
+    public InvalidCatalogQueryException(String message) {
+        super(message);
+    }
+}
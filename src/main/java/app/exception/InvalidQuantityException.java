@@ -0,0 +1,7 @@
+package app.exception;
+
+public class InvalidQuantityException extends RuntimeException {
+    public InvalidQuantityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package app.exception;
+
+public class ProductAlreadyExistException extends RuntimeException {
+    public ProductAlreadyExistException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package app.image.model;
+
+// A single HTTP byte range resolved against a file size; end is inclusive.
+public record ByteRange(long start, long end, boolean partial) {
+
+    public long length() {
+
+        return end - start + 1;
+    }
+
+    // Returns the whole file when there is no usable Range header (absent, malformed or
+    // multi-range, which RFC 9110 lets us ignore) and null when the range is unsatisfiable.
+    public static ByteRange parse(String header, long size) {
+
+        ByteRange whole = new ByteRange(0, size - 1, false);
+
+        if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+            return whole;
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+
+        if (dash < 0) {
+            return whole;
+        }
+
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+
+        try {
+            long start;
+            long end;
+
+            if (first.isEmpty()) {
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffixLength);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+
+            if (start >= size || start > end) {
+                return null;
+            }
+
+            return new ByteRange(start, end, true);
+
+        } catch (NumberFormatException e) {
+            return whole;
+        }
+    }
+}
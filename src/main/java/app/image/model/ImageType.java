@@ -0,0 +1,50 @@
+package app.image.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ImageType {
+
+    JPEG("image/jpeg"),
+    PNG("image/png"),
+    GIF("image/gif"),
+    WEBP("image/webp");
+
+    public static final int HEADER_LENGTH = 12;
+
+    private final String contentType;
+
+    ImageType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    // Identifies the format from the file's magic bytes rather than trusting the uploaded content type.
+    public static Optional<ImageType> detect(byte[] header) {
+
+        if (startsWith(header, 0, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})) {
+            return Optional.of(JPEG);
+        }
+        if (startsWith(header, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G'})) {
+            return Optional.of(PNG);
+        }
+        if (startsWith(header, 0, "GIF8".getBytes(StandardCharsets.US_ASCII))) {
+            return Optional.of(GIF);
+        }
+        if (startsWith(header, 0, "RIFF".getBytes(StandardCharsets.US_ASCII)) && startsWith(header, 8, "WEBP".getBytes(StandardCharsets.US_ASCII))) {
+            return Optional.of(WEBP);
+        }
+
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int offset, byte[] magic) {
+
+        return header.length >= offset + magic.length
+                && Arrays.equals(header, offset, offset + magic.length, magic, 0, magic.length);
+    }
+}
@@ -0,0 +1,37 @@
+package app.image.model;
+
+import java.util.Optional;
+
+public enum ImageVariant {
+
+    THUMBNAIL("thumb", 240),
+    DETAIL("detail", 800),
+    RETINA("retina", 1600);
+
+    private final String slug;
+    private final int width;
+
+    ImageVariant(String slug, int width) {
+        this.slug = slug;
+        this.width = width;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public static Optional<ImageVariant> fromSlug(String slug) {
+
+        for (ImageVariant variant : values()) {
+            if (variant.slug.equals(slug)) {
+                return Optional.of(variant);
+            }
+        }
+
+        return Optional.empty();
+    }
+}
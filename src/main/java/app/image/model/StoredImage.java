@@ -0,0 +1,6 @@
+package app.image.model;
+
+import java.nio.file.Path;
+
+public record StoredImage(String hash, Path path, long size, ImageType type) {
+}
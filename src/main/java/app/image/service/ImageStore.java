@@ -0,0 +1,171 @@
+package app.image.service;
+
+import app.exception.InvalidImageException;
+import app.image.model.ImageType;
+import app.image.model.ImageVariant;
+import app.image.model.StoredImage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Content-addressed image files on local disk: each upload is stored once under its SHA-256,
+// fanned out by the first two hex digits (root/ab/ab12...). Files never change after they are written.
+@Service
+public class ImageStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Cache<Path, StoredImage> images = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    public ImageStore(@Value("${app.images.root:${user.home}/flower-shop/images}") Path root) {
+        this.root = root;
+    }
+
+    public String store(InputStream inputStream) throws IOException {
+
+        Files.createDirectories(root);
+        Path upload = Files.createTempFile(root, "upload-", ".tmp");
+
+        try {
+            MessageDigest digest = sha256();
+
+            try (InputStream in = new DigestInputStream(inputStream, digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (readType(upload).isEmpty()) {
+                throw new InvalidImageException("Only JPEG, PNG, GIF and WebP images are supported.");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            return hash;
+
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public Optional<StoredImage> find(String hash) throws IOException {
+
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+
+        return load(hash, pathOf(hash));
+    }
+
+    public Optional<StoredImage> findVariant(String hash, ImageVariant variant) throws IOException {
+
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+
+        return load(hash, variantPathOf(hash, variant));
+    }
+
+    public boolean hasVariant(String hash, ImageVariant variant) {
+
+        return isValidHash(hash) && Files.isRegularFile(variantPathOf(hash, variant));
+    }
+
+    public void storeVariant(String hash, ImageVariant variant, byte[] content) throws IOException {
+
+        Path target = variantPathOf(hash, variant);
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public boolean exists(String hash) {
+
+        return isValidHash(hash) && Files.isRegularFile(pathOf(hash));
+    }
+
+    // Files are immutable once written, so their type and size are read from disk only on the first lookup.
+    // Missing files are not remembered: a variant appears once it has been generated.
+    private Optional<StoredImage> load(String hash, Path path) throws IOException {
+
+        StoredImage cached = images.getIfPresent(path);
+
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        Optional<StoredImage> image = readType(path).map(imageType -> new StoredImage(hash, path, sizeOf(path), imageType));
+        image.ifPresent(storedImage -> images.put(path, storedImage));
+
+        return image;
+    }
+
+    private Path pathOf(String hash) {
+
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path variantPathOf(String hash, ImageVariant variant) {
+
+        return pathOf(hash).resolveSibling(hash + "-" + variant.getSlug());
+    }
+
+    private static boolean isValidHash(String hash) {
+
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    private static Optional<ImageType> readType(Path path) throws IOException {
+
+        try (InputStream in = Files.newInputStream(path)) {
+            return ImageType.detect(in.readNBytes(ImageType.HEADER_LENGTH));
+        }
+    }
+
+    private static long sizeOf(Path path) {
+
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read size of " + path, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package app.image.service;
+
+import app.event.ProductChangedEvent;
+import app.image.model.ImageVariant;
+import app.image.model.StoredImage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Generates the resized variants of product images in the background. The executor has a fixed
+// number of threads and a bounded queue; when it is full, submissions are parked in a pending set
+// and retried on a schedule instead of blocking (or running on) the request thread.
+// Hashes whose generation failed or whose format has no decoder are remembered for a while, so
+// that reads of their variants fall back to the original without queueing the same work again.
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final int FAILED_CACHE_SIZE = 10_000;
+    private static final Duration FAILED_CACHE_TTL = Duration.ofHours(1);
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Void>> queued = new ConcurrentHashMap<>();
+    private final Set<String> deferred = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Boolean> failed = Caffeine.newBuilder()
+            .maximumSize(FAILED_CACHE_SIZE)
+            .expireAfterWrite(FAILED_CACHE_TTL)
+            .build();
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final Counter unsupportedCounter;
+    private final Counter deferredCounter;
+
+    public ImageVariantService(ImageStore imageStore, MeterRegistry meterRegistry,
+                               @Value("${app.images.variants.threads:2}") int threads,
+                               @Value("${app.images.variants.queue-capacity:200}") int queueCapacity) {
+
+        this.imageStore = imageStore;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.generatedCounter = meterRegistry.counter("images.variants.generated");
+        this.failedCounter = meterRegistry.counter("images.variants.failed");
+        this.unsupportedCounter = meterRegistry.counter("images.variants.unsupported");
+        this.deferredCounter = meterRegistry.counter("images.variants.deferred");
+        Gauge.builder("images.variants.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("images.variants.pending", deferred, Set::size).register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        if (event.type() == ProductChangedEvent.Type.CREATED && event.imageHash() != null) {
+            submit(event.imageHash());
+        }
+    }
+
+    // Completes when this generation attempt has ended, successfully or not. An attempt that is parked
+    // because the executor is full completes at once; the scheduled retry starts a new one.
+    public CompletableFuture<Void> submit(String hash) {
+
+        CompletableFuture<Void> generation = new CompletableFuture<>();
+        CompletableFuture<Void> running = queued.putIfAbsent(hash, generation);
+
+        if (running != null) {
+            return running;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash);
+                } finally {
+                    queued.remove(hash);
+                    generation.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(hash);
+            generation.complete(null);
+            if (deferred.add(hash)) {
+                deferredCounter.increment();
+            }
+        }
+
+        return generation;
+    }
+
+    // Called when a variant is read before it exists. Work that is already queued, parked or known to
+    // fail is not submitted again, so repeated reads of a broken image cost no more than serving it.
+    public boolean requestVariants(String hash) {
+
+        if (queued.containsKey(hash) || deferred.contains(hash) || failed.getIfPresent(hash) != null) {
+            return false;
+        }
+
+        submit(hash);
+
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.variants.retry-delay:5000}")
+    public void retryDeferred() {
+
+        for (String hash : deferred) {
+
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return;
+            }
+
+            deferred.remove(hash);
+            submit(hash);
+        }
+    }
+
+    void generate(String hash) {
+
+        try {
+            Optional<StoredImage> original = imageStore.find(hash);
+
+            if (original.isEmpty()) {
+                return;
+            }
+
+            BufferedImage source = ImageIO.read(original.get().path().toFile());
+
+            if (source == null) {
+                unsupportedCounter.increment();
+                failed.put(hash, Boolean.TRUE);
+                log.info("No decoder for image {} ({}); serving the original for all sizes.", hash, original.get().type());
+                return;
+            }
+
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (!imageStore.hasVariant(hash, variant)) {
+                    imageStore.storeVariant(hash, variant, resize(source, variant.getWidth()));
+                }
+            }
+
+            generatedCounter.increment();
+
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            failed.put(hash, Boolean.TRUE);
+            log.warn("Generating variants for image {} failed: {}", hash, e.getMessage());
+        }
+    }
+
+    // Scales down to the target width keeping the aspect ratio; images are never scaled up.
+    static byte[] resize(BufferedImage source, int width) throws IOException {
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (double) targetWidth / source.getWidth()));
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(target, alpha ? "png" : "jpg", out);
+
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,6 @@
+package app.inventory.model;
+
+import java.util.UUID;
+
+public record StockDelta(UUID productId, long delta) {
+}
@@ -0,0 +1,35 @@
+package app.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One stock movement that is committed but not yet applied to Product.currentQuantity.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_journal", indexes = @Index(name = "idx_stock_journal_product", columnList = "productId"))
+public class StockJournalEntry {
+
+    // Pooled ids keep the inserts batchable; an IDENTITY column would force one round trip per movement.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_journal_seq")
+    @SequenceGenerator(name = "stock_journal_seq", sequenceName = "stock_journal_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID productId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
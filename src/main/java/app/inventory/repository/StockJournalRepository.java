@@ -0,0 +1,24 @@
+package app.inventory.repository;
+
+import app.inventory.model.StockDelta;
+import app.inventory.model.StockJournalEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockJournalRepository extends JpaRepository<StockJournalEntry, Long> {
+
+    List<StockJournalEntry> findByOrderByIdAsc(Pageable pageable);
+
+    @Query("SELECT new app.inventory.model.StockDelta(j.productId, SUM(j.delta)) FROM StockJournalEntry j GROUP BY j.productId")
+    List<StockDelta> sumPendingDeltas();
+
+    @Query("SELECT COALESCE(SUM(j.delta), 0) FROM StockJournalEntry j WHERE j.productId = :productId")
+    long sumPendingDelta(@Param("productId") UUID productId);
+}
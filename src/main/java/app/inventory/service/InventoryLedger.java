@@ -0,0 +1,319 @@
+package app.inventory.service;
+
+import app.event.ProductChangedEvent;
+import app.exception.InvalidQuantityException;
+import app.exception.NotEnoughInStockException;
+import app.exception.ResourceNotFoundException;
+import app.inventory.model.StockDelta;
+import app.inventory.model.StockJournalEntry;
+import app.inventory.repository.StockJournalRepository;
+import app.product.model.Product;
+import app.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Authoritative available stock per product, held in memory so that basket writes never touch the
+// hot product row. Every movement is appended to the stock_journal table inside the caller's
+// transaction, and a scheduled flush folds the journal into Product.currentQuantity in batches.
+// After a restart the ledger is rebuilt as currentQuantity plus the unapplied journal, so committed
+// reservations survive a crash. This assumes a single application instance owns the stock.
+@Slf4j
+@Service
+public class InventoryLedger {
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StockJournalRepository stockJournalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<UUID, AtomicInteger> available = new ConcurrentHashMap<>();
+    // Held while the journal is applied or the ledger reads product + journal, so those reads never see half a flush.
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter rejectedCounter;
+    private final Counter flushedCounter;
+
+    @Autowired
+    public InventoryLedger(ProductRepository productRepository, StockJournalRepository stockJournalRepository, TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.stockJournalRepository = stockJournalRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+
+        this.rejectedCounter = meterRegistry.counter("inventory.ledger.rejected");
+        this.flushedCounter = meterRegistry.counter("inventory.ledger.flushed");
+        Gauge.builder("inventory.ledger.products", available, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+
+        flushLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+
+                Map<UUID, Long> pending = stockJournalRepository.sumPendingDeltas().stream()
+                        .collect(Collectors.toMap(StockDelta::productId, StockDelta::delta));
+
+                productRepository.findAllSummaries().forEach(product -> available.putIfAbsent(product.id(),
+                        new AtomicInteger(Math.toIntExact(product.currentQuantity() + pending.getOrDefault(product.id(), 0L)))));
+            });
+        } finally {
+            flushLock.unlock();
+        }
+
+        log.info("Inventory ledger loaded for {} products.", available.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        if (event.type() == ProductChangedEvent.Type.CREATED) {
+            available.putIfAbsent(event.productId(), new AtomicInteger(event.currentQuantity()));
+        } else if (event.type() == ProductChangedEvent.Type.REMOVED) {
+            available.remove(event.productId());
+        }
+    }
+
+    public OptionalInt available(UUID productId) {
+
+        AtomicInteger stock = available.get(productId);
+
+        return stock == null ? OptionalInt.empty() : OptionalInt.of(stock.get());
+    }
+
+    // Takes stock if enough is left and returns what remains.
+    public int reserve(UUID productId, int quantity) {
+
+        requirePositive(quantity);
+
+        AtomicInteger stock = stockOf(productId);
+
+        if (stock == null) {
+            throw new ResourceNotFoundException("Product not found.");
+        }
+
+        int current;
+        do {
+            current = stock.get();
+            if (current < quantity) {
+                rejectedCounter.increment();
+                throw new NotEnoughInStockException("Not enough stock available.");
+            }
+        } while (!stock.compareAndSet(current, current - quantity));
+
+        journal(productId, -quantity, () -> stock.addAndGet(quantity));
+
+        return current - quantity;
+    }
+
+    // Gives stock back; empty when the product is no longer sold, in which case only the journal records it.
+    public OptionalInt release(UUID productId, int quantity) {
+
+        requirePositive(quantity);
+
+        AtomicInteger stock = stockOf(productId);
+
+        if (stock == null) {
+            journal(productId, quantity, () -> { });
+            return OptionalInt.empty();
+        }
+
+        int remaining = stock.addAndGet(quantity);
+        journal(productId, quantity, () -> stock.addAndGet(-quantity));
+
+        return OptionalInt.of(remaining);
+    }
+
+    // An absolute stock level from an admin is journaled as the difference to the current level,
+    // so it composes with reservations that are still waiting to be flushed.
+    public void set(UUID productId, int quantity) {
+
+        if (quantity < 0) {
+            throw new InvalidQuantityException("Stock level must not be negative.");
+        }
+
+        AtomicInteger stock = stockOf(productId);
+
+        if (stock == null) {
+            throw new ResourceNotFoundException("Product not found.");
+        }
+
+        int delta = quantity - stock.getAndSet(quantity);
+
+        if (delta != 0) {
+            journal(productId, delta, () -> stock.addAndGet(-delta));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval:1000}")
+    public int flush() {
+
+        Set<UUID> flushedProducts = new HashSet<>();
+        int flushedRows = 0;
+        int batchSize;
+
+        flushLock.lock();
+        try {
+            do {
+                List<StockJournalEntry> entries = transactionTemplate.execute(status -> applyBatch());
+                batchSize = entries.size();
+                flushedRows += batchSize;
+                entries.forEach(entry -> flushedProducts.add(entry.getProductId()));
+            } while (batchSize == FLUSH_BATCH_SIZE);
+        } catch (OptimisticLockingFailureException e) {
+            // A product row changed while the batch was applied; the batch rolled back with its journal rows intact.
+            log.debug("Inventory flush conflicted with a product update, the rest is applied on the next flush: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+
+        if (flushedRows > 0) {
+            flushedCounter.increment(flushedRows);
+            publishFlushed(flushedProducts);
+        }
+
+        return flushedRows;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Inventory journal was not flushed on shutdown, it will be applied after restart: {}", e.getMessage());
+        }
+    }
+
+    // Rows are deleted by the exact ids that were applied, so entries committed in the meantime wait for the next flush.
+    // Deltas go through the managed entities: the version check guards against concurrent product edits, and the
+    // second-level cache entries are updated one by one instead of a bulk UPDATE evicting the whole product region.
+    private List<StockJournalEntry> applyBatch() {
+
+        List<StockJournalEntry> entries = stockJournalRepository.findByOrderByIdAsc(PageRequest.of(0, FLUSH_BATCH_SIZE));
+
+        if (entries.isEmpty()) {
+            return entries;
+        }
+
+        Map<UUID, Integer> deltas = new HashMap<>();
+        entries.forEach(entry -> deltas.merge(entry.getProductId(), entry.getDelta(), Integer::sum));
+
+        Map<UUID, Product> products = productRepository.findAllById(deltas.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        deltas.forEach((productId, delta) -> {
+            Product product = products.get(productId);
+            if (delta != 0 && product != null) {
+                product.setCurrentQuantity(product.getCurrentQuantity() + delta);
+            } else if (delta != 0) {
+                productRepository.adjustStock(productId, delta);
+            }
+        });
+
+        stockJournalRepository.deleteAllByIdInBatch(entries.stream().map(StockJournalEntry::getId).toList());
+
+        return entries;
+    }
+
+    // Listings read from the product table, so they are told once the flushed stock is visible there.
+    private void publishFlushed(Set<UUID> productIds) {
+
+        for (Product product : productRepository.findAllById(productIds)) {
+            available(product.getId()).ifPresent(quantity -> eventPublisher.publishEvent(
+                    ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, product).withCurrentQuantity(quantity)));
+        }
+    }
+
+    private static void requirePositive(int quantity) {
+
+        if (quantity <= 0) {
+            throw new InvalidQuantityException("Quantity must be positive.");
+        }
+    }
+
+    private AtomicInteger stockOf(UUID productId) {
+
+        AtomicInteger stock = available.get(productId);
+
+        if (stock != null) {
+            return stock;
+        }
+
+        flushLock.lock();
+        try {
+            Optional<Product> product = productRepository.findActiveById(productId);
+
+            if (product.isEmpty()) {
+                return null;
+            }
+
+            AtomicInteger loaded = new AtomicInteger(Math.toIntExact(product.get().getCurrentQuantity() + stockJournalRepository.sumPendingDelta(productId)));
+            AtomicInteger existing = available.putIfAbsent(productId, loaded);
+
+            return existing != null ? existing : loaded;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // The journal row commits or rolls back with the caller's transaction; a rollback hands the stock back in memory.
+    private void journal(UUID productId, int delta, Runnable undo) {
+
+        try {
+            stockJournalRepository.save(StockJournalEntry.builder()
+                    .productId(productId)
+                    .delta(delta)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            undo.run();
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package app.product.catalog;
+
+import app.exception.InvalidCursorException;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the URL-safe Base64 of the last product name of the previous page.
+@UtilityClass
+public class CatalogCursor {
+
+    public static final String FIRST_PAGE = "";
+
+    public static String encode(String lastName) {
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor.");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package app.product.catalog;
+
+import java.util.List;
+
+public record CatalogPage<T>(List<T> items, String nextCursor) {
+
+    public CatalogPage {
+        items = List.copyOf(items);
+    }
+}
@@ -0,0 +1,336 @@
+package app.product.catalog;
+
+import app.exception.InvalidCursorException;
+import app.product.model.Money;
+import app.product.model.ProductSummary;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+// Immutable struct-of-arrays copy of the active catalog. Filters run over primitive columns
+// (price in minor units, stock, category ordinal) and every sort order is a precomputed
+// permutation, so a query is a lock-free scan that allocates only the page it returns.
+// Writes never modify a snapshot; they produce a new one, sharing the unchanged columns where they can.
+public final class CatalogSnapshot {
+
+    public static final CatalogSnapshot EMPTY = of(List.of());
+
+    private final ProductSummary[] rows;
+    private final CollationKey[] names;
+    private final long[] prices;
+    // False where the product has no sale price; prices[i] is then 0 and must not be read as a price.
+    private final boolean[] priced;
+    private final int[] quantities;
+    private final String[] categories;
+    private final int[] categoryOrdinals;
+    private final Map<UUID, Integer> positions;
+    private final int[][] orders;
+
+    private CatalogSnapshot(ProductSummary[] rows, CollationKey[] names, long[] prices, boolean[] priced, int[] quantities, String[] categories,
+                            int[] categoryOrdinals, Map<UUID, Integer> positions, int[][] orders) {
+        this.rows = rows;
+        this.names = names;
+        this.prices = prices;
+        this.priced = priced;
+        this.quantities = quantities;
+        this.categories = categories;
+        this.categoryOrdinals = categoryOrdinals;
+        this.positions = positions;
+        this.orders = orders;
+    }
+
+    public static CatalogSnapshot of(Collection<ProductSummary> products) {
+
+        ProductSummary[] rows = products.toArray(ProductSummary[]::new);
+        int size = rows.length;
+
+        String[] categories = Arrays.stream(rows)
+                .map(ProductSummary::category)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+
+        Collator collator = nameCollator();
+        CollationKey[] names = new CollationKey[size];
+        long[] prices = new long[size];
+        boolean[] priced = new boolean[size];
+        int[] quantities = new int[size];
+        int[] categoryOrdinals = new int[size];
+        Map<UUID, Integer> positions = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            names[i] = collator.getCollationKey(rows[i].name());
+            priced[i] = rows[i].salePrice() != null;
+            prices[i] = priced[i] ? Money.toMinor(rows[i].salePrice()) : 0;
+            quantities[i] = rows[i].currentQuantity();
+            categoryOrdinals[i] = rows[i].category() == null ? -1 : Arrays.binarySearch(categories, rows[i].category());
+            positions.put(rows[i].id(), i);
+        }
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(rows, names, prices, priced, quantities, categories, categoryOrdinals, positions, new int[CatalogSort.values().length][]);
+
+        for (CatalogSort sort : CatalogSort.values()) {
+            snapshot.orders[sort.ordinal()] = snapshot.order(sort);
+        }
+
+        return snapshot;
+    }
+
+    public int size() {
+
+        return rows.length;
+    }
+
+    // Patches one stock value in place of a rebuild. The changed row is moved to its new place in the
+    // stock_desc order, so every order stays sorted and cursors keep working on the patched snapshot.
+    public CatalogSnapshot withQuantity(UUID productId, int quantity) {
+
+        Integer position = positions.get(productId);
+
+        if (position == null || quantities[position] == quantity) {
+            return this;
+        }
+
+        ProductSummary row = rows[position];
+
+        ProductSummary[] newRows = rows.clone();
+        newRows[position] = new ProductSummary(row.id(), row.name(), row.salePrice(), row.image(), row.imageHash(), row.category(), quantity);
+
+        int[] newQuantities = quantities.clone();
+        newQuantities[position] = quantity;
+
+        int[][] newOrders = orders.clone();
+        CatalogSnapshot patched = new CatalogSnapshot(newRows, names, prices, priced, newQuantities, categories, categoryOrdinals, positions, newOrders);
+        newOrders[CatalogSort.STOCK_DESC.ordinal()] = patched.repositioned(orders[CatalogSort.STOCK_DESC.ordinal()], position);
+
+        return patched;
+    }
+
+    // Copies a stock_desc order that is sorted except for the given row, with that row moved to where its current key belongs.
+    private int[] repositioned(int[] order, int row) {
+
+        int[] others = new int[order.length - 1];
+        int count = 0;
+
+        for (int i : order) {
+            if (i != row) {
+                others[count++] = i;
+            }
+        }
+
+        int low = 0;
+        int high = others.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareRows(CatalogSort.STOCK_DESC, others[middle], row) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] result = new int[order.length];
+        System.arraycopy(others, 0, result, 0, low);
+        result[low] = row;
+        System.arraycopy(others, low, result, low + 1, others.length - low);
+
+        return result;
+    }
+
+    public CatalogSnapshot applying(Collection<ProductSummary> upserts, Collection<UUID> removals) {
+
+        Map<UUID, ProductSummary> products = new LinkedHashMap<>(rows.length * 2);
+
+        for (ProductSummary row : rows) {
+            products.put(row.id(), row);
+        }
+        for (ProductSummary upsert : upserts) {
+            products.put(upsert.id(), upsert);
+        }
+        removals.forEach(products::remove);
+
+        return of(products.values());
+    }
+
+    // Prices are inclusive bounds in minor units; while either bound is set, products without a price are
+    // left out, as a SQL comparison with NULL would. The cursor is the "key:name" of the last row of the
+    // previous page, so paging stays stable while the snapshot is replaced between requests.
+    public CatalogPage<ProductSummary> query(String category, boolean inStockOnly, long minPrice, long maxPrice,
+                                             CatalogSort sort, String after, int limit) {
+
+        int categoryOrdinal = -1;
+
+        if (category != null) {
+            categoryOrdinal = Arrays.binarySearch(categories, category);
+            if (categoryOrdinal < 0) {
+                return new CatalogPage<>(List.of(), null);
+            }
+        }
+
+        int[] order = orders[sort.ordinal()];
+        int start = after.isEmpty() ? 0 : firstAfter(order, sort, decodeKey(after), decodeName(after));
+
+        if (sort == CatalogSort.PRICE_ASC && minPrice != Long.MIN_VALUE) {
+            start = Math.max(start, firstAfter(order, sort, minPrice - 1, null));
+        } else if (sort == CatalogSort.PRICE_DESC && maxPrice != Long.MAX_VALUE) {
+            start = Math.max(start, firstAfter(order, sort, -maxPrice - 1, null));
+        }
+
+        boolean priceFiltered = minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE;
+        List<ProductSummary> page = new ArrayList<>(Math.min(limit + 1, 64));
+        int last = -1;
+
+        for (int k = start; k < order.length; k++) {
+
+            int i = order[k];
+
+            // Unpriced rows sit at the start of price_asc and the end of price_desc, so they never trigger these breaks.
+            if (priced[i] && (sort == CatalogSort.PRICE_ASC && prices[i] > maxPrice || sort == CatalogSort.PRICE_DESC && prices[i] < minPrice)) {
+                break;
+            }
+            if (categoryOrdinal >= 0 && categoryOrdinals[i] != categoryOrdinal
+                    || inStockOnly && quantities[i] <= 0
+                    || priceFiltered && (!priced[i] || prices[i] < minPrice || prices[i] > maxPrice)) {
+                continue;
+            }
+
+            if (page.size() == limit) {
+                return new CatalogPage<>(page, CatalogCursor.encode(sortKey(sort, last) + ":" + rows[last].name()));
+            }
+
+            page.add(rows[i]);
+            last = i;
+        }
+
+        return new CatalogPage<>(page, null);
+    }
+
+    // Sorts a primitive index array with a merge sort, so building an order boxes nothing.
+    private int[] order(CatalogSort sort) {
+
+        int[] order = new int[rows.length];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        mergeSort(order.clone(), order, 0, order.length, sort);
+
+        return order;
+    }
+
+    // Sorts target[from, to) using source as scratch space; both must hold the same indices on entry.
+    private void mergeSort(int[] source, int[] target, int from, int to, CatalogSort sort) {
+
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, sort);
+        mergeSort(target, source, middle, to, sort);
+
+        int left = from;
+        int right = middle;
+
+        for (int k = from; k < to; k++) {
+            if (right >= to || left < middle && compareRows(sort, source[left], source[right]) <= 0) {
+                target[k] = source[left++];
+            } else {
+                target[k] = source[right++];
+            }
+        }
+    }
+
+    private int compareRows(CatalogSort sort, int left, int right) {
+
+        int comparison = Long.compare(sortKey(sort, left), sortKey(sort, right));
+
+        return comparison != 0 ? comparison : compareNames(names[left], rows[left].name(), names[right], rows[right].name());
+    }
+
+    // Names compare the way the MySQL column collation does (case- and accent-insensitive), with the
+    // exact string as a tie-break so that the order stays total.
+    private static int compareNames(CollationKey leftKey, String left, CollationKey rightKey, String right) {
+
+        int comparison = leftKey.compareTo(rightKey);
+
+        return comparison != 0 ? comparison : left.compareTo(right);
+    }
+
+    // getInstance hands out a fresh copy, so concurrent builds never contend on one collator.
+    private static Collator nameCollator() {
+
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+
+        return collator;
+    }
+
+    // Every order is ascending on (key, name); descending sorts negate the key. Products without a price
+    // come first in price_asc and last in price_desc, where MySQL puts NULL.
+    private long sortKey(CatalogSort sort, int row) {
+
+        return switch (sort) {
+            case NAME -> 0;
+            case PRICE_ASC -> priced[row] ? prices[row] : Long.MIN_VALUE;
+            case PRICE_DESC -> priced[row] ? -prices[row] : Long.MAX_VALUE;
+            case STOCK_DESC -> -quantities[row];
+        };
+    }
+
+    // First position whose (key, name) is strictly greater than the given one; a null name means "after every row with this key".
+    private int firstAfter(int[] order, CatalogSort sort, long key, String name) {
+
+        CollationKey nameKey = name == null ? null : nameCollator().getCollationKey(name);
+        int low = 0;
+        int high = order.length;
+
+        while (low < high) {
+
+            int middle = (low + high) >>> 1;
+            int row = order[middle];
+            int comparison = Long.compare(sortKey(sort, row), key);
+
+            if (comparison == 0 && name != null) {
+                comparison = compareNames(names[row], rows[row].name(), nameKey, name);
+            }
+
+            if (comparison > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+    private static long decodeKey(String after) {
+
+        int separator = after.indexOf(':');
+
+        try {
+            return Long.parseLong(after.substring(0, Math.max(separator, 0)));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid pagination cursor.");
+        }
+    }
+
+    private static String decodeName(String after) {
+
+        return after.substring(after.indexOf(':') + 1);
+    }
+}
@@ -0,0 +1,175 @@
+package app.product.catalog;
+
+import app.event.ProductChangedEvent;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Publishes the current CatalogSnapshot through a volatile reference. Stock changes are patched into a
+// new snapshot right away, stock order included; creates and removes are folded in with one rebuild, so
+// a bulk import does not rebuild the snapshot once per row. Rebuilds run on the scheduled flush or on a
+// background thread a stale read asks for; a reader never waits for one and may miss a new or removed
+// product until it lands.
+@Slf4j
+@Component
+public class CatalogSnapshotHolder {
+
+    private final ProductRepository productRepository;
+
+    private final Map<UUID, ProductSummary> pendingUpserts = new LinkedHashMap<>();
+    private final Set<UUID> pendingRemovals = new HashSet<>();
+    // Stock changes that arrive while a rebuild is running, replayed onto its result.
+    private final Map<UUID, Integer> quantitiesDuringRebuild = new HashMap<>();
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.EMPTY;
+    private volatile boolean structureStale;
+    private boolean rebuilding;
+
+    @Autowired
+    public CatalogSnapshotHolder(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingUpserts.clear();
+                pendingRemovals.clear();
+
+                snapshot = CatalogSnapshot.of(productRepository.findAllSummaries());
+                structureStale = false;
+            }
+        }
+
+        log.info("Catalog snapshot built for {} products.", snapshot.size());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+
+        switch (event.type()) {
+            case CREATED -> {
+                pendingRemovals.remove(event.productId());
+                pendingUpserts.put(event.productId(), new ProductSummary(event.productId(), event.name(), event.salePrice(),
+                        event.image(), event.imageHash(), event.category(), event.currentQuantity()));
+                structureStale = true;
+            }
+            case QUANTITY_CHANGED -> {
+                pendingUpserts.computeIfPresent(event.productId(), (id, product) -> new ProductSummary(id, product.name(),
+                        product.salePrice(), product.image(), product.imageHash(), product.category(), event.currentQuantity()));
+                snapshot = snapshot.withQuantity(event.productId(), event.currentQuantity());
+                if (rebuilding) {
+                    quantitiesDuringRebuild.put(event.productId(), event.currentQuantity());
+                }
+            }
+            case REMOVED -> {
+                pendingUpserts.remove(event.productId());
+                pendingRemovals.add(event.productId());
+                structureStale = true;
+            }
+        }
+    }
+
+    public CatalogSnapshot current() {
+
+        if (structureStale) {
+            requestRebuild();
+        }
+
+        return snapshot;
+    }
+
+    // Any number of stale reads queue at most one rebuild.
+    private void requestRebuild() {
+
+        if (!rebuildRequested.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            rebuilder.execute(() -> {
+                rebuildRequested.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            rebuildRequested.set(false);
+        }
+    }
+
+    // The pending changes are taken under the lock, but the rebuild itself runs outside it, so change
+    // events are not held up while the orders are sorted.
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.flush-interval:1000}")
+    public void flush() {
+
+        synchronized (rebuildLock) {
+
+            CatalogSnapshot base;
+            List<ProductSummary> upserts;
+            Set<UUID> removals;
+
+            synchronized (this) {
+                if (!structureStale) {
+                    return;
+                }
+
+                base = snapshot;
+                upserts = new ArrayList<>(pendingUpserts.values());
+                removals = new HashSet<>(pendingRemovals);
+
+                pendingUpserts.clear();
+                pendingRemovals.clear();
+                structureStale = false;
+                rebuilding = true;
+            }
+
+            CatalogSnapshot rebuilt = base.applying(upserts, removals);
+
+            synchronized (this) {
+                for (Map.Entry<UUID, Integer> quantity : quantitiesDuringRebuild.entrySet()) {
+                    rebuilt = rebuilt.withQuantity(quantity.getKey(), quantity.getValue());
+                }
+
+                quantitiesDuringRebuild.clear();
+                rebuilding = false;
+                snapshot = rebuilt;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        rebuilder.shutdownNow();
+    }
+}
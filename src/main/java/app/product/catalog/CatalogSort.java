@@ -0,0 +1,32 @@
+package app.product.catalog;
+
+import app.exception.InvalidCatalogQueryException;
+
+public enum CatalogSort {
+
+    NAME("name"),
+    PRICE_ASC("price_asc"),
+    PRICE_DESC("price_desc"),
+    STOCK_DESC("stock_desc");
+
+    private final String param;
+
+    CatalogSort(String param) {
+        this.param = param;
+    }
+
+    public static CatalogSort fromParam(String param) {
+
+        if (param == null || param.isBlank()) {
+            return NAME;
+        }
+
+        for (CatalogSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(param.trim())) {
+                return sort;
+            }
+        }
+
+        throw new InvalidCatalogQueryException("Unsupported sort '" + param + "'. Use name, price_asc, price_desc or stock_desc.");
+    }
+}
@@ -0,0 +1,37 @@
+package app.product.catalog;
+
+import app.event.ProductChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic catalog version, bumped after every committed product or stock change.
+// Seeded with the start time so ETags issued before a restart never match a newer catalog.
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    // Runs after the catalog cache and the in-memory read models have been updated, so a
+    // request that sees the new version can never be answered from stale state.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        version.incrementAndGet();
+    }
+
+    public long current() {
+
+        return version.get();
+    }
+
+    public String eTag(Object... requestParts) {
+
+        return "\"" + Long.toHexString(current()) + "-" + Integer.toHexString(Arrays.hashCode(requestParts)) + "\"";
+    }
+}
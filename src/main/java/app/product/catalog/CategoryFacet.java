@@ -0,0 +1,4 @@
+package app.product.catalog;
+
+public record CategoryFacet(String category, int productCount, int inStockCount) {
+}
@@ -0,0 +1,141 @@
+package app.product.catalog;
+
+import app.event.ProductChangedEvent;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Per-category product and in-stock counts, loaded once and then maintained from
+// ProductChangedEvents. Readers get a pre-built immutable list, so they never wait on a writer.
+@Slf4j
+@Component
+public class CategoryFacets {
+
+    private final ProductRepository productRepository;
+
+    private final Map<UUID, ProductState> products = new HashMap<>();
+    private final Map<String, Counts> counts = new TreeMap<>();
+
+    private volatile List<CategoryFacet> facets = List.of();
+    private volatile List<String> categories = List.of();
+
+    @Autowired
+    public CategoryFacets(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+
+        products.clear();
+        counts.clear();
+
+        List<ProductSummary> summaries = productRepository.findAllSummaries();
+        summaries.forEach(product -> add(product.id(), product.category(), product.currentQuantity()));
+
+        publish();
+        log.info("Category facets built for {} products in {} categories.", summaries.size(), counts.size());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+
+        switch (event.type()) {
+            case CREATED -> add(event.productId(), event.category(), event.currentQuantity());
+            case QUANTITY_CHANGED -> updateStock(event.productId(), event.currentQuantity());
+            case REMOVED -> remove(event.productId());
+        }
+
+        publish();
+    }
+
+    public List<CategoryFacet> facets() {
+
+        return facets;
+    }
+
+    public List<String> categories() {
+
+        return categories;
+    }
+
+    private void add(UUID productId, String category, int currentQuantity) {
+
+        if (category == null) {
+            return;
+        }
+
+        remove(productId);
+
+        boolean inStock = currentQuantity > 0;
+        products.put(productId, new ProductState(category, inStock));
+
+        Counts categoryCounts = counts.computeIfAbsent(category, key -> new Counts());
+        categoryCounts.total++;
+        if (inStock) {
+            categoryCounts.inStock++;
+        }
+    }
+
+    private void updateStock(UUID productId, int currentQuantity) {
+
+        ProductState state = products.get(productId);
+        boolean inStock = currentQuantity > 0;
+
+        if (state == null || state.inStock() == inStock) {
+            return;
+        }
+
+        products.put(productId, new ProductState(state.category(), inStock));
+        counts.get(state.category()).inStock += inStock ? 1 : -1;
+    }
+
+    private void remove(UUID productId) {
+
+        ProductState state = products.remove(productId);
+
+        if (state == null) {
+            return;
+        }
+
+        Counts categoryCounts = counts.get(state.category());
+        categoryCounts.total--;
+        if (state.inStock()) {
+            categoryCounts.inStock--;
+        }
+        if (categoryCounts.total == 0) {
+            counts.remove(state.category());
+        }
+    }
+
+    private void publish() {
+
+        List<CategoryFacet> snapshot = counts.entrySet().stream()
+                .map(entry -> new CategoryFacet(entry.getKey(), entry.getValue().total, entry.getValue().inStock))
+                .toList();
+
+        facets = snapshot;
+        categories = snapshot.stream().map(CategoryFacet::category).toList();
+    }
+
+    private record ProductState(String category, boolean inStock) {
+    }
+
+    private static final class Counts {
+        private int total;
+        private int inStock;
+    }
+}
@@ -0,0 +1,102 @@
+package app.product.catalog;
+
+import app.event.ProductChangedEvent;
+import app.product.model.ProductSummary;
+import app.user.model.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCatalogCache {
+
+    private final Cache<CatalogKey, CatalogPage<ProductSummary>> cache;
+    // Keys of the pages that a loaded page's next cursor points to.
+    private final Cache<CatalogKey, Boolean> issuedCursors;
+    // Bumped on every change, so a load that started before the change stores its page under a key no reader asks for again.
+    private final AtomicLong allProductsGeneration = new AtomicLong();
+    private final Map<String, Long> categoryGenerations = new ConcurrentHashMap<>();
+
+    public ProductCatalogCache(MeterRegistry meterRegistry,
+                               @Value("${app.catalog.cache.max-size:500}") long maxSize,
+                               @Value("${app.catalog.cache.ttl:5m}") Duration ttl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        this.issuedCursors = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productCatalog");
+    }
+
+    // Only first pages and pages behind a cursor we handed out are cached; a made-up cursor is
+    // served straight from the loader, so clients cannot fill the cache with arbitrary keys.
+    public CatalogPage<ProductSummary> get(UserRole userRole, String category, String after, int limit, Supplier<CatalogPage<ProductSummary>> loader) {
+
+        CatalogKey catalogKey = new CatalogKey(userRole, category, generationOf(category), after, limit);
+
+        if (!CatalogCursor.FIRST_PAGE.equals(after) && issuedCursors.getIfPresent(catalogKey) == null) {
+            return remember(catalogKey, loader.get());
+        }
+
+        return cache.get(catalogKey, key -> remember(key, loader.get()));
+    }
+
+    private CatalogPage<ProductSummary> remember(CatalogKey key, CatalogPage<ProductSummary> page) {
+
+        if (page.nextCursor() != null) {
+            issuedCursors.put(new CatalogKey(key.userRole(), key.category(), key.generation(),
+                    CatalogCursor.decode(page.nextCursor()), key.limit()), Boolean.TRUE);
+        }
+
+        return page;
+    }
+
+    // Moves the "all products" lists and the changed product's category to a new generation, for every role,
+    // then drops the old entries. Runs before any other catalog listener so nothing downstream can re-read a stale entry.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        allProductsGeneration.incrementAndGet();
+        if (event.category() != null) {
+            categoryGenerations.merge(event.category(), 1L, Long::sum);
+        }
+
+        cache.asMap().keySet().removeIf(key -> key.category() == null || Objects.equals(key.category(), event.category()));
+        issuedCursors.asMap().keySet().removeIf(key -> key.category() == null || Objects.equals(key.category(), event.category()));
+    }
+
+    private long generationOf(String category) {
+
+        return category == null ? allProductsGeneration.get() : categoryGenerations.getOrDefault(category, 0L);
+    }
+
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    record CatalogKey(UserRole userRole, String category, long generation, String after, int limit) {
+    }
+}
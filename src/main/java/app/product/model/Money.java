@@ -0,0 +1,29 @@
+package app.product.model;
+
+import lombok.experimental.UtilityClass;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Prices are kept as long minor units (cents) wherever they are compared or summed in bulk;
+// BigDecimal is only used at the API and persistence edges.
+@UtilityClass
+public class Money {
+
+    public static final int SCALE = 2;
+
+    public static long toMinor(BigDecimal amount) {
+
+        // A missing amount is not free; callers decide how to reject it.
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required.");
+        }
+
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
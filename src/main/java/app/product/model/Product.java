@@ -5,8 +5,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.SQLRestriction;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -14,13 +19,23 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_category_stock", columnList = "category, inactive, currentQuantity"),
+        @Index(name = "idx_product_stock", columnList = "inactive, currentQuantity"),
+        @Index(name = "idx_product_category_name", columnList = "category, name")
+})
 @SQLRestriction("inactive = false")
+// READ_WRITE soft-locks an entry while a transaction updates it, so a cached row is never older than the committed one.
+// currentQuantity in that row trails the inventory ledger by up to one flush; live stock is read from the ledger.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@NaturalIdCache(region = "product-by-name")
 public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String name;
 
@@ -40,6 +55,9 @@ public class Product {
     @Column
     private String image;
 
+    @Column(length = 64)
+    private String imageHash;
+
     @Column
     private String category;
 
@@ -50,4 +68,12 @@ public class Product {
 
     @Column(nullable = false)
     private Boolean inactive = false;
+
+    @Column
+    private LocalDateTime inactivatedAt;
+
+    // Every write to the row bumps it, including the ledger's stock flush and the targeted flag UPDATEs,
+    // so a write from a stale copy fails instead of overwriting the newer row.
+    @Version
+    private long version;
 }
@@ -0,0 +1,64 @@
+package app.product.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Retired products moved out of the product table by ProductArchiveService. Rows are only
+// written and read back through native INSERT ... SELECT statements, so the columns mirror Product.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "product_archive", indexes = {
+        @Index(name = "idx_product_archive_name", columnList = "name"),
+        @Index(name = "idx_product_archive_archived_at", columnList = "archivedAt")
+})
+public class ProductArchive {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column
+    private BigDecimal costPrice;
+
+    @Column
+    private BigDecimal salePrice;
+
+    @Column
+    private int currentQuantity;
+
+    @Column
+    private String image;
+
+    @Column(length = 64)
+    private String imageHash;
+
+    @Column
+    private String category;
+
+    @Column(nullable = false)
+    private Integer restockThreshold;
+
+    private boolean restockAlertSent;
+
+    @Column
+    private LocalDateTime inactivatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
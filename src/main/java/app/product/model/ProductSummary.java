@@ -0,0 +1,8 @@
+package app.product.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Read-only view of a product for list pages; it deliberately leaves out the description LOB.
+public record ProductSummary(UUID id, String name, BigDecimal salePrice, String image, String imageHash, String category, int currentQuantity) {
+}
@@ -0,0 +1,51 @@
+package app.product.repository;
+
+import app.product.model.ProductArchive;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// The native statements name the tables they touch as query spaces, so Hibernate only
+// invalidates the product cache regions instead of the whole second-level cache.
+@Repository
+public interface ProductArchiveRepository extends JpaRepository<ProductArchive, UUID> {
+
+    String COLUMNS = "id, name, description, cost_price, sale_price, current_quantity, image, image_hash, category, "
+            + "restock_threshold, restock_alert_sent, inactivated_at";
+
+    // Products still referenced by a basket line stay where they are, so basket history keeps resolving them.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_archive"))
+    @Query(value = "INSERT INTO product_archive (" + COLUMNS + ", archived_at) "
+            + "SELECT " + COLUMNS + ", :archivedAt FROM product p "
+            + "WHERE p.inactive = true AND (p.inactivated_at IS NULL OR p.inactivated_at < :cutoff) "
+            + "AND NOT EXISTS (SELECT 1 FROM basket_item bi WHERE bi.product_id = p.id)", nativeQuery = true)
+    int copyArchivableProducts(@Param("cutoff") LocalDateTime cutoff, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Only the rows copied by this run are matched, so the statement does not grow with the archive.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product"))
+    @Query(value = "DELETE FROM product WHERE id IN (SELECT a.id FROM product_archive a WHERE a.archived_at = :archivedAt)", nativeQuery = true)
+    int deleteArchivedProducts(@Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product"))
+    @Query(value = "INSERT INTO product (id, name, description, cost_price, sale_price, current_quantity, image, image_hash, category, "
+            + "restock_threshold, restock_alert_sent, inactive, inactivated_at, version) "
+            + "SELECT id, name, description, cost_price, sale_price, current_quantity, image, image_hash, category, "
+            + "restock_threshold, restock_alert_sent, false, NULL, 0 FROM product_archive WHERE id = :id", nativeQuery = true)
+    int copyBackToProducts(@Param("id") UUID id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_archive"))
+    @Query(value = "DELETE FROM product_archive WHERE id = :id", nativeQuery = true)
+    int deleteArchived(@Param("id") UUID id);
+}
@@ -0,0 +1,15 @@
+package app.product.repository;
+
+import app.product.model.Product;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Lookups that go through the persistence context and the second-level cache instead of a query.
+// Cached entries are not subject to @SQLRestriction, so both methods drop inactive products themselves.
+public interface ProductNaturalIdRepository {
+
+    Optional<Product> findActiveByName(String name);
+
+    Optional<Product> findActiveById(UUID id);
+}
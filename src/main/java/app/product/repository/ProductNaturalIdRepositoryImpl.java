@@ -0,0 +1,38 @@
+package app.product.repository;
+
+import app.product.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Transactional(readOnly = true)
+public class ProductNaturalIdRepositoryImpl implements ProductNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Product> findActiveByName(String name) {
+
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Product.class)
+                .loadOptional(name)
+                .filter(ProductNaturalIdRepositoryImpl::isActive);
+    }
+
+    @Override
+    public Optional<Product> findActiveById(UUID id) {
+
+        return Optional.ofNullable(entityManager.find(Product.class, id))
+                .filter(ProductNaturalIdRepositoryImpl::isActive);
+    }
+
+    private static boolean isActive(Product product) {
+
+        return !Boolean.TRUE.equals(product.getInactive());
+    }
+}
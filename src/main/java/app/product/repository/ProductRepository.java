@@ -1,25 +1,67 @@
 package app.product.repository;
 
 import app.product.model.Product;
+import app.product.model.ProductSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.web.bind.annotation.PathVariable;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductNaturalIdRepository {
 
-    Optional<Product> findByName(String name);
+    String SUMMARY = "SELECT new app.product.model.ProductSummary(p.id, p.name, p.salePrice, p.image, p.imageHash, p.category, p.currentQuantity) FROM Product p ";
 
-    Optional<Product> findByCategoryAndName(String name, @PathVariable String category);
+    List<Product> findAllByNameIn(Collection<String> names);
 
     @Query("SELECT p FROM Product p WHERE p.currentQuantity < p.restockThreshold AND p.restockAlertSent = false")
     List<Product> findByCurrentQuantityLessThanThreshold();
 
-    @Query("SELECT DISTINCT p.category FROM Product p")
-    List<String> findAllCategories();
+    @Query(SUMMARY)
+    List<ProductSummary> findAllSummaries();
+
+    // Applies a journaled stock change to a retired product, which entity queries no longer see. Native so the
+    // inactive restriction does not apply; the version bump makes any write from a stale copy of the row fail.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET current_quantity = current_quantity + :delta, version = version + 1 WHERE id = :id", nativeQuery = true)
+    int adjustStock(@Param("id") UUID id, @Param("delta") int delta);
+
+    // Targeted flag updates never write current_quantity, so they cannot undo a concurrent stock flush.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.restockAlertSent = true, p.version = p.version + 1 WHERE p.id IN :ids")
+    int markRestockAlertSent(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.inactive = true, p.inactivatedAt = :inactivatedAt, p.version = p.version + 1 WHERE p.id = :id AND p.inactive = false")
+    int deactivate(@Param("id") UUID id, @Param("inactivatedAt") LocalDateTime inactivatedAt);
+
+    @Query(SUMMARY + "WHERE p.name > :after ORDER BY p.name")
+    List<ProductSummary> findPage(@Param("after") String after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.currentQuantity > 0 AND p.name > :after ORDER BY p.name")
+    List<ProductSummary> findInStockPage(@Param("after") String after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.category = :category AND p.name > :after ORDER BY p.name")
+    List<ProductSummary> findCategoryPage(@Param("category") String category, @Param("after") String after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.category = :category AND p.currentQuantity > 0 AND p.name > :after ORDER BY p.name")
+    List<ProductSummary> findInStockCategoryPage(@Param("category") String category, @Param("after") String after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Native so that names held by inactive products are reported too; they still own the unique index.
+    @Query(value = "SELECT name FROM product WHERE name IN (:names)", nativeQuery = true)
+    List<String> findExistingNames(@Param("names") Collection<String> names);
 }
@@ -0,0 +1,201 @@
+package app.product.search;
+
+import app.event.ProductChangedEvent;
+import app.product.model.Product;
+import app.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over product name, category and description, ranked with BM25.
+// Built once on startup and then kept current from ProductChangedEvents.
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<UUID, Integer> documentLengths = new HashMap<>();
+    private final Set<UUID> outOfStock = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        List<Product> products = productRepository.findAll();
+
+        for (Product product : products) {
+            index(product.getId(), product.getName(), product.getDescription(), product.getCategory(), product.getCurrentQuantity());
+        }
+
+        log.info("Product search index built with {} products.", products.size());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        switch (event.type()) {
+            case CREATED -> index(event.productId(), event.name(), event.description(), event.category(), event.currentQuantity());
+            case QUANTITY_CHANGED -> updateStock(event.productId(), event.currentQuantity());
+            case REMOVED -> remove(event.productId());
+        }
+    }
+
+    public void index(UUID productId, String name, String description, String category, int currentQuantity) {
+
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, name, NAME_WEIGHT);
+        addTerms(terms, category, CATEGORY_WEIGHT);
+        addTerms(terms, description, DESCRIPTION_WEIGHT);
+
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+
+            documents.put(productId, terms);
+            documentLengths.put(productId, length);
+            totalLength += length;
+            terms.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(productId, frequency));
+
+            if (currentQuantity <= 0) {
+                outOfStock.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateStock(UUID productId, int currentQuantity) {
+
+        lock.writeLock().lock();
+        try {
+            if (!documents.containsKey(productId)) {
+                return;
+            }
+            if (currentQuantity > 0) {
+                outOfStock.remove(productId);
+            } else {
+                outOfStock.add(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<UUID> search(String query, boolean inStockOnly, int limit) {
+
+        List<String> queryTerms = SearchTokenizer.tokenize(query).stream().distinct().toList();
+
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+
+            if (documentCount == 0) {
+                return List.of();
+            }
+
+            double averageLength = (double) totalLength / documentCount;
+            Map<UUID, Double> scores = new HashMap<>();
+
+            for (String term : queryTerms) {
+
+                Map<UUID, Integer> matches = postings.get(term);
+
+                if (matches == null) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (documentCount - matches.size() + 0.5) / (matches.size() + 0.5));
+
+                matches.forEach((productId, frequency) -> {
+                    if (inStockOnly && outOfStock.contains(productId)) {
+                        return;
+                    }
+                    double lengthNorm = 1 - B + B * documentLengths.get(productId) / averageLength;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+                    scores.merge(productId, score, Double::sum);
+                });
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(UUID productId) {
+
+        Map<String, Integer> terms = documents.remove(productId);
+
+        if (terms == null) {
+            return;
+        }
+
+        terms.keySet().forEach(term -> {
+            Map<UUID, Integer> matches = postings.get(term);
+            matches.remove(productId);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+
+        totalLength -= documentLengths.remove(productId);
+        outOfStock.remove(productId);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+
+        for (String token : SearchTokenizer.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+}
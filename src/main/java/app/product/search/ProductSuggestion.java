@@ -0,0 +1,6 @@
+package app.product.search;
+
+import java.util.UUID;
+
+public record ProductSuggestion(UUID id, String name, String category, int currentQuantity) {
+}
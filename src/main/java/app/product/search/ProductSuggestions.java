@@ -0,0 +1,347 @@
+package app.product.search;
+
+import app.event.ProductChangedEvent;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix trie over active product names for type-ahead. Every name is inserted once per word
+// start ("red rose" and "rose"), and every node keeps the best MAX_SUGGESTIONS products below it
+// (most stock first), so a lookup is a walk down the prefix with no subtree scan.
+@Slf4j
+@Component
+public class ProductSuggestions {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<ProductSuggestion> RANKING = Comparator.comparingInt(ProductSuggestion::currentQuantity).reversed()
+            .thenComparing(ProductSuggestion::name);
+
+    private final ProductRepository productRepository;
+
+    private final Node root = new Node();
+    private final Map<UUID, ProductSuggestion> products = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ProductSuggestions(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+
+        List<ProductSummary> summaries = productRepository.findAllSummaries();
+
+        for (ProductSummary product : summaries) {
+            add(new ProductSuggestion(product.id(), product.name(), product.category(), product.currentQuantity()));
+        }
+
+        log.info("Product suggestions built for {} products.", summaries.size());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        switch (event.type()) {
+            case CREATED -> add(new ProductSuggestion(event.productId(), event.name(), event.category(), event.currentQuantity()));
+            case QUANTITY_CHANGED -> updateStock(event.productId(), event.currentQuantity());
+            case REMOVED -> remove(event.productId());
+        }
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, boolean inStockOnly, int limit) {
+
+        String key = normalize(prefix);
+
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+
+            if (node == null) {
+                return List.of();
+            }
+
+            List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, MAX_SUGGESTIONS));
+            for (ProductSuggestion suggestion : node.top) {
+                if (suggestions.size() == limit) {
+                    break;
+                }
+                if (!inStockOnly || suggestion.currentQuantity() > 0) {
+                    suggestions.add(suggestion);
+                }
+            }
+
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(ProductSuggestion product) {
+
+        if (product.name() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            ProductSuggestion previous = products.put(product.id(), product);
+            if (previous != null) {
+                keysOf(previous.name()).forEach(key -> detach(key, previous));
+            }
+            keysOf(product.name()).forEach(key -> attach(key, product));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateStock(UUID productId, int currentQuantity) {
+
+        lock.writeLock().lock();
+        try {
+            ProductSuggestion previous = products.get(productId);
+            if (previous == null || previous.currentQuantity() == currentQuantity) {
+                return;
+            }
+
+            ProductSuggestion updated = new ProductSuggestion(productId, previous.name(), previous.category(), currentQuantity);
+            products.put(productId, updated);
+
+            List<String> keys = keysOf(previous.name());
+            keys.forEach(key -> detach(key, previous));
+            keys.forEach(key -> attach(key, updated));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+
+        lock.writeLock().lock();
+        try {
+            ProductSuggestion previous = products.remove(productId);
+            if (previous != null) {
+                keysOf(previous.name()).forEach(key -> detach(key, previous));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adding a product can only push it into the top lists on its path, so each one is updated in place.
+    private void attach(String key, ProductSuggestion product) {
+
+        Node node = root;
+        offer(node, product);
+
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            offer(node, product);
+        }
+
+        node.terminals.add(product);
+    }
+
+    // Removing a product leaves a gap only in the top lists that held it; those are refilled
+    // deepest first from the node's own products and its children's top lists.
+    private void detach(String key, ProductSuggestion product) {
+
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        path[key.length()].terminals.removeIf(terminal -> terminal.id().equals(product.id()));
+
+        for (int i = key.length(); i >= 0; i--) {
+            if (path[i].ranks(product.id())) {
+                refill(path[i]);
+            }
+        }
+
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    private static void offer(Node node, ProductSuggestion product) {
+
+        if (node.ranks(product.id())) {
+            return;
+        }
+
+        ProductSuggestion[] top = node.top;
+
+        if (top.length == MAX_SUGGESTIONS && RANKING.compare(product, top[top.length - 1]) >= 0) {
+            return;
+        }
+
+        int insertAt = 0;
+        while (insertAt < top.length && RANKING.compare(top[insertAt], product) < 0) {
+            insertAt++;
+        }
+
+        int length = Math.min(top.length + 1, MAX_SUGGESTIONS);
+        ProductSuggestion[] updated = new ProductSuggestion[length];
+        System.arraycopy(top, 0, updated, 0, insertAt);
+        updated[insertAt] = product;
+        System.arraycopy(top, insertAt, updated, insertAt + 1, length - insertAt - 1);
+
+        node.top = updated;
+    }
+
+    private static void refill(Node node) {
+
+        List<ProductSuggestion> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+
+        candidates.sort(RANKING);
+
+        Set<UUID> seen = new HashSet<>();
+        List<ProductSuggestion> top = new ArrayList<>(MAX_SUGGESTIONS);
+        for (ProductSuggestion candidate : candidates) {
+            if (top.size() == MAX_SUGGESTIONS) {
+                break;
+            }
+            if (seen.add(candidate.id())) {
+                top.add(candidate);
+            }
+        }
+
+        node.top = top.toArray(ProductSuggestion[]::new);
+    }
+
+    static List<String> keysOf(String name) {
+
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+
+        return keys;
+    }
+
+    private static String normalize(String text) {
+
+        if (text == null) {
+            return "";
+        }
+
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // Children are kept in parallel arrays sorted by character, which is far smaller than a map per node.
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final ProductSuggestion[] NO_SUGGESTIONS = new ProductSuggestion[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private final List<ProductSuggestion> terminals = new ArrayList<>(1);
+        private ProductSuggestion[] top = NO_SUGGESTIONS;
+
+        Node child(char c) {
+
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertAt = -index - 1;
+            Node child = new Node();
+
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char c) {
+
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return;
+            }
+
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+
+        boolean ranks(UUID productId) {
+
+            for (ProductSuggestion suggestion : top) {
+                if (suggestion.id().equals(productId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+
+            return terminals.isEmpty() && children.length == 0;
+        }
+    }
+}
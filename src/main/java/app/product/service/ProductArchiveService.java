@@ -0,0 +1,81 @@
+package app.product.service;
+
+import app.event.ProductChangedEvent;
+import app.exception.ProductAlreadyExistException;
+import app.exception.ResourceNotFoundException;
+import app.product.model.Product;
+import app.product.model.ProductArchive;
+import app.product.repository.ProductArchiveRepository;
+import app.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+// Moves products that have been inactive for longer than the grace period into product_archive,
+// keeping the hot product table and its indexes limited to sellable and recently retired rows.
+@Slf4j
+@Service
+public class ProductArchiveService {
+
+    private final ProductArchiveRepository productArchiveRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration gracePeriod;
+
+    @Autowired
+    public ProductArchiveService(ProductArchiveRepository productArchiveRepository, ProductRepository productRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.products.archive.grace-period:30d}") Duration gracePeriod) {
+        this.productArchiveRepository = productArchiveRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(cron = "${app.products.archive.cron:0 30 3 * * *}")
+    @Transactional
+    public int archiveInactiveProducts() {
+
+        LocalDateTime archivedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        int archived = productArchiveRepository.copyArchivableProducts(archivedAt.minus(gracePeriod), archivedAt);
+
+        if (archived > 0) {
+            productArchiveRepository.deleteArchivedProducts(archivedAt);
+            log.info("Archived {} products inactive since before {}.", archived, archivedAt.minus(gracePeriod));
+        }
+
+        return archived;
+    }
+
+    @Transactional
+    public Product restoreProduct(UUID productId) {
+
+        ProductArchive archived = productArchiveRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived product not found."));
+
+        if (!productRepository.findExistingNames(List.of(archived.getName())).isEmpty()) {
+            throw new ProductAlreadyExistException("A product named '" + archived.getName() + "' already exists.");
+        }
+
+        productArchiveRepository.copyBackToProducts(productId);
+        productArchiveRepository.deleteArchived(productId);
+
+        Product product = productRepository.findActiveById(productId)
+                .orElseThrow(() -> new IllegalStateException("Restored product " + productId + " could not be loaded."));
+
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.CREATED, product));
+
+        return product;
+    }
+}
@@ -0,0 +1,76 @@
+package app.product.service;
+
+import app.product.model.Product;
+import app.web.mapper.DtoMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class ProductExportService {
+
+    // Native on purpose: it bypasses the inactive = false restriction so exports include retired products.
+    private static final String ALL_PRODUCTS_INCLUDING_INACTIVE = "SELECT * FROM product";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public ProductExportService(EntityManager entityManager, ObjectMapper objectMapper,
+                                @Value("${app.products.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    // Writes every product, including inactive ones, as newline-delimited JSON. Rows are read
+    // through a forward-only cursor and detached once written, so memory stays flat. The fetch size
+    // is set on this statement alone; on MySQL, Integer.MIN_VALUE makes the driver stream the rows.
+    // The cache mode keeps the full scan out of the "product" second-level cache region.
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream outputStream) throws IOException {
+
+        long exported = 0;
+
+        @SuppressWarnings("unchecked")
+        Stream<Product> rows = entityManager.createNativeQuery(ALL_PRODUCTS_INCLUDING_INACTIVE, Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+
+        try (Stream<Product> products = rows) {
+
+            Iterator<Product> iterator = products.iterator();
+
+            while (iterator.hasNext()) {
+
+                Product product = iterator.next();
+
+                outputStream.write(objectMapper.writeValueAsBytes(DtoMapper.toProductExportResponse(product)));
+                outputStream.write('\n');
+
+                entityManager.detach(product);
+                exported++;
+            }
+        }
+
+        outputStream.flush();
+        log.info("Exported {} products.", exported);
+
+        return exported;
+    }
+}
@@ -0,0 +1,391 @@
+package app.product.service;
+
+import app.event.ProductChangedEvent;
+import app.exception.InvalidImportException;
+import app.product.model.Product;
+import app.product.repository.ProductRepository;
+import app.web.dto.ProductImportReport;
+import app.web.dto.ProductImportRowResult;
+import app.web.dto.ProductRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Imports large supplier catalogs: rows are parsed one at a time from the request stream,
+// validated and de-duplicated per chunk, and each chunk is inserted in its own transaction
+// so Hibernate can send the INSERTs as JDBC batches.
+@Slf4j
+@Service
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    public enum Format {
+        JSON,
+        CSV
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ProductImportService(ProductRepository productRepository, ProductService productService, EntityManager entityManager,
+                                TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    public ProductImportReport importProducts(InputStream inputStream, Format format) throws IOException {
+
+        long startedAt = System.currentTimeMillis();
+
+        List<ProductImportRowResult> results = new ArrayList<>();
+        Set<String> seenNames = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        Consumer<ImportRow> collector = row -> {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                importChunk(chunk, seenNames, results);
+                chunk.clear();
+            }
+        };
+
+        if (format == Format.CSV) {
+            readCsv(inputStream, collector);
+        } else {
+            readJson(inputStream, collector);
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenNames, results);
+        }
+
+        results.sort(Comparator.comparingInt(ProductImportRowResult::getRow));
+
+        int imported = (int) results.stream()
+                .filter(result -> result.getStatus() == ProductImportRowResult.Status.IMPORTED)
+                .count();
+
+        log.info("Product import finished: {} of {} rows imported.", imported, results.size());
+
+        return new ProductImportReport(results.size(), imported, results.size() - imported, System.currentTimeMillis() - startedAt, results);
+    }
+
+    private void readJson(InputStream inputStream, Consumer<ImportRow> collector) throws IOException {
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidImportException("Expected a JSON array of products.");
+            }
+
+            int row = 0;
+            JsonToken token;
+
+            // Every element is a row: objects are imported, anything else is reported as a rejected row.
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+
+                if (token == null) {
+                    throw new InvalidImportException("Malformed JSON: the product array is not closed.");
+                }
+
+                row++;
+
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    collector.accept(new ImportRow(row, null, null, "row must be a JSON object"));
+                    continue;
+                }
+
+                JsonNode node = objectMapper.readTree(parser);
+
+                collector.accept(toImportRow(row, field -> {
+                    JsonNode value = node.get(field);
+                    return value == null || value.isNull() ? null : value.asText();
+                }));
+            }
+
+            if (parser.nextToken() != null) {
+                throw new InvalidImportException("Malformed JSON: unexpected content after the product array.");
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readCsv(InputStream inputStream, Consumer<ImportRow> collector) throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        List<String> header = readCsvRecord(reader);
+
+        if (header == null) {
+            throw new InvalidImportException("CSV import is empty.");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+
+        int row = 0;
+        List<String> values;
+
+        while ((values = readCsvRecord(reader)) != null) {
+
+            if (values.size() == 1 && values.getFirst().isBlank()) {
+                continue;
+            }
+
+            List<String> record = values;
+            row++;
+
+            collector.accept(toImportRow(row, field -> {
+                Integer index = columns.get(field);
+                return index == null || index >= record.size() || record.get(index).isEmpty() ? null : record.get(index);
+            }));
+        }
+    }
+
+    // Reads one RFC 4180 record, character by character: commas separate fields, double quotes enclose
+    // them, and a quoted field may hold commas, line breaks and "" for a quote. Returns null at the end.
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        int c;
+
+        while ((c = reader.read()) != -1) {
+
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        current.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    current.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else if (c == '\n') {
+                values.add(current.toString());
+                return values;
+            } else if (c != '\r') {
+                current.append((char) c);
+            }
+        }
+
+        if (quoted) {
+            throw new InvalidImportException("CSV import ends inside a quoted field.");
+        }
+
+        if (values.isEmpty() && current.isEmpty()) {
+            return null;
+        }
+
+        values.add(current.toString());
+
+        return values;
+    }
+
+    private ImportRow toImportRow(int row, Function<String, String> field) {
+
+        String name = field.apply("name");
+
+        try {
+            String salePrice = field.apply("salePrice");
+            String quantity = field.apply("quantity");
+
+            ProductRequest request = ProductRequest.builder()
+                    .name(name == null ? null : name.trim())
+                    .description(field.apply("description"))
+                    .salePrice(salePrice == null ? null : new BigDecimal(salePrice.trim()))
+                    .quantity(quantity == null ? 0 : Integer.parseInt(quantity.trim()))
+                    .image(field.apply("image"))
+                    .imageHash(field.apply("imageHash"))
+                    .category(field.apply("category"))
+                    .build();
+
+            return new ImportRow(row, request.getName(), request, validate(request));
+
+        } catch (NumberFormatException e) {
+            return new ImportRow(row, name, null, "salePrice and quantity must be numbers");
+        }
+    }
+
+    private String validate(ProductRequest request) {
+
+        if (isBlank(request.getName())) {
+            return "name is required";
+        }
+        if (request.getSalePrice() == null || request.getSalePrice().signum() < 0) {
+            return "salePrice is required and must not be negative";
+        }
+        if (request.getQuantity() < 0) {
+            return "quantity must not be negative";
+        }
+        if (isBlank(request.getImage()) && isBlank(request.getImageHash())) {
+            return "image or imageHash is required";
+        }
+        if (request.getImageHash() != null && !productService.isStoredImage(request.getImageHash())) {
+            return "imageHash does not reference an uploaded image";
+        }
+        if (isBlank(request.getCategory())) {
+            return "category is required";
+        }
+        if (productService.isReservedCategory(request.getCategory())) {
+            return "category name is reserved";
+        }
+
+        return null;
+    }
+
+    private void importChunk(List<ImportRow> chunk, Set<String> seenNames, List<ProductImportRowResult> results) {
+
+        List<String> names = chunk.stream()
+                .filter(row -> row.error() == null)
+                .map(ImportRow::name)
+                .toList();
+
+        Set<String> existingNames = names.isEmpty() ? Set.of() : productRepository.findExistingNames(names).stream()
+                .map(ProductImportService::nameKey)
+                .collect(Collectors.toSet());
+
+        List<ImportRow> accepted = new ArrayList<>();
+
+        for (ImportRow row : chunk) {
+
+            String error = row.error();
+
+            if (error == null && (existingNames.contains(nameKey(row.name())) || !seenNames.add(nameKey(row.name())))) {
+                error = "a product with this name already exists";
+            }
+
+            if (error != null) {
+                results.add(new ProductImportRowResult(row.row(), row.name(), ProductImportRowResult.Status.REJECTED, error, null));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Product> products = save(accepted);
+
+            for (int i = 0; i < accepted.size(); i++) {
+                results.add(imported(accepted.get(i), products.get(i)));
+            }
+
+        } catch (DataAccessException | PersistenceException e) {
+
+            // One bad row must not sink the other rows of its chunk, so the chunk is retried a row at a time.
+            log.warn("Product import chunk of {} rows failed, retrying row by row: {}", accepted.size(), e.getMessage());
+
+            for (ImportRow row : accepted) {
+                results.add(importRow(row, seenNames));
+            }
+        }
+    }
+
+    private ProductImportRowResult importRow(ImportRow row, Set<String> seenNames) {
+
+        try {
+            return imported(row, save(List.of(row)).getFirst());
+
+        } catch (DataAccessException | PersistenceException e) {
+
+            log.warn("Product import row {} failed: {}", row.row(), e.getMessage());
+
+            // The name was never stored, so a later row may still use it.
+            seenNames.remove(nameKey(row.name()));
+
+            return new ProductImportRowResult(row.row(), row.name(), ProductImportRowResult.Status.FAILED, "could not be saved", null);
+        }
+    }
+
+    // Products are built afresh for every attempt; entities from a rolled-back attempt already carry ids.
+    private List<Product> save(List<ImportRow> rows) {
+
+        List<Product> products = rows.stream()
+                .map(row -> productService.toNewProduct(row.request()))
+                .toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+
+            productRepository.saveAll(products);
+            entityManager.flush();
+            entityManager.clear();
+
+            products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.CREATED, product)));
+        });
+
+        return products;
+    }
+
+    private static ProductImportRowResult imported(ImportRow row, Product product) {
+
+        return new ProductImportRowResult(row.row(), row.name(), ProductImportRowResult.Status.IMPORTED, null, product.getId());
+    }
+
+    // The unique index on product.name compares case-insensitively under the MySQL collation.
+    private static String nameKey(String name) {
+
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String value) {
+
+        return value == null || value.isBlank();
+    }
+
+    private record ImportRow(int row, String name, ProductRequest request, String error) {
+    }
+}
@@ -1,78 +1,247 @@
 package app.product.service;
 
+import app.event.ProductChangedEvent;
 import app.exception.AuthorizationDeniedException;
+import app.exception.InvalidCatalogQueryException;
+import app.exception.InvalidImageException;
+import app.exception.InvalidQuantityException;
 import app.exception.ResourceNotFoundException;
+import app.image.service.ImageStore;
+import app.inventory.service.InventoryLedger;
+import app.product.catalog.CatalogCursor;
+import app.product.catalog.CatalogPage;
+import app.product.catalog.CatalogSnapshotHolder;
+import app.product.catalog.CatalogSort;
+import app.product.catalog.CategoryFacet;
+import app.product.catalog.CategoryFacets;
+import app.product.catalog.ProductCatalogCache;
+import app.product.model.Money;
 import app.product.model.Product;
+import app.product.model.ProductSummary;
 import app.product.repository.ProductRepository;
+import app.product.search.ProductSearchIndex;
+import app.product.search.ProductSuggestion;
+import app.product.search.ProductSuggestions;
 import app.user.model.UserRole;
+import app.web.dto.BulkQuantityUpdateResponse;
 import app.web.dto.ProductRequest;
+import app.web.dto.QuantityUpdateEntry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    // Fixed routes under /products that GET /products/{category} would otherwise shadow.
+    private static final Set<String> RESERVED_CATEGORY_NAMES = Set.of("categories", "export", "stream", "search", "suggest", "quantities", "import", "archive");
+    private static final BigDecimal MAX_PRICE_BOUND = Money.toDecimal(Long.MAX_VALUE - 1);
+
     private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestions productSuggestions;
+    private final CategoryFacets categoryFacets;
+    private final CatalogSnapshotHolder catalogSnapshotHolder;
+    private final ImageStore imageStore;
+    private final InventoryLedger inventoryLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCatalogCache productCatalogCache, ProductSearchIndex productSearchIndex,
+                          ProductSuggestions productSuggestions, CategoryFacets categoryFacets, CatalogSnapshotHolder catalogSnapshotHolder, ImageStore imageStore,
+                          InventoryLedger inventoryLedger, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggestions = productSuggestions;
+        this.categoryFacets = categoryFacets;
+        this.catalogSnapshotHolder = catalogSnapshotHolder;
+        this.imageStore = imageStore;
+        this.inventoryLedger = inventoryLedger;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Product> getAllProducts(UserRole userRole) {
+    public CatalogPage<ProductSummary> getAllProducts(UserRole userRole, String cursor, Integer limit) {
 
-        List<Product> products = productRepository.findAll();
+        String after = CatalogCursor.decode(cursor);
+        int pageSize = toPageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
 
-        return products.stream()
-                .filter(product -> userRole == UserRole.ADMIN || product.getCurrentQuantity() > 0)
-                .collect(Collectors.toList());
+        return productCatalogCache.get(userRole, null, after, pageSize, () -> toPage(userRole == UserRole.ADMIN
+                ? productRepository.findPage(after, pageable)
+                : productRepository.findInStockPage(after, pageable), pageSize));
+    }
+
+    public CatalogPage<ProductSummary> getProductsByCategory(String categoryName, UserRole userRole, String cursor, Integer limit) {
+
+        String after = CatalogCursor.decode(cursor);
+        int pageSize = toPageSize(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        return productCatalogCache.get(userRole, categoryName, after, pageSize, () -> toPage(userRole == UserRole.ADMIN
+                ? productRepository.findCategoryPage(categoryName, after, pageable)
+                : productRepository.findInStockCategoryPage(categoryName, after, pageable), pageSize));
+    }
+
+    // Price-range filters and non-default sorts run against the in-memory columnar snapshot instead of MySQL.
+    public CatalogPage<ProductSummary> queryCatalog(String categoryName, BigDecimal minPrice, BigDecimal maxPrice, String sort,
+                                                    UserRole userRole, String cursor, Integer limit) {
+
+        CatalogSort catalogSort = CatalogSort.fromParam(sort);
+        long minPriceMinor = minPrice == null ? Long.MIN_VALUE : toMinorPriceBound(minPrice, "minPrice");
+        long maxPriceMinor = maxPrice == null ? Long.MAX_VALUE : toMinorPriceBound(maxPrice, "maxPrice");
+
+        if (minPriceMinor > maxPriceMinor) {
+            throw new InvalidCatalogQueryException("minPrice must not be greater than maxPrice.");
+        }
+
+        return catalogSnapshotHolder.current().query(categoryName, userRole != UserRole.ADMIN, minPriceMinor, maxPriceMinor,
+                catalogSort, CatalogCursor.decode(cursor), toPageSize(limit));
+    }
+
+    public List<ProductSummary> searchProducts(String query, UserRole userRole, Integer limit) {
+
+        List<UUID> rankedIds = productSearchIndex.search(query, userRole != UserRole.ADMIN, toPageSize(limit));
+
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, ProductSummary> productsById = productRepository.findSummariesByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+
+        return rankedIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, UserRole userRole, Integer limit) {
+
+        int size = (limit == null || limit <= 0) ? ProductSuggestions.MAX_SUGGESTIONS : Math.min(limit, ProductSuggestions.MAX_SUGGESTIONS);
+
+        return productSuggestions.suggest(prefix, userRole != UserRole.ADMIN, size);
+    }
+
+    // Query parameters are unbounded, so a price that does not fit in minor units is a bad request, not an overflow.
+    private static long toMinorPriceBound(BigDecimal price, String parameter) {
+
+        if (price.abs().compareTo(MAX_PRICE_BOUND) > 0) {
+            throw new InvalidCatalogQueryException(parameter + " is out of range.");
+        }
+
+        return Money.toMinor(price);
+    }
+
+    private int toPageSize(Integer limit) {
+
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
 
-    public List<Product> getProductsByCategory(String categoryName, UserRole userRole) {
+    // The queries fetch one row more than requested so we know whether another page exists.
+    private CatalogPage<ProductSummary> toPage(List<ProductSummary> products, int pageSize) {
 
-        List<Product> products = productRepository.findAll();
+        if (products.size() <= pageSize) {
+            return new CatalogPage<>(products, null);
+        }
+
+        List<ProductSummary> page = products.subList(0, pageSize);
 
-        return products.stream()
-                .filter(product -> (userRole == UserRole.ADMIN || product.getCurrentQuantity() > 0) && product.getCategory().equals(categoryName))
-                .collect(Collectors.toList());
+        return new CatalogPage<>(page, CatalogCursor.encode(page.getLast().name()));
     }
 
+    // The returned product is detached, so it can carry the ledger's stock, which may be ahead of the last flush.
     public Product getProduct(String categoryName, String productName,  UserRole userRole) {
 
-        return productRepository.findByName(productName)
+        return productRepository.findActiveByName(productName)
                 .filter(product -> product.getCategory() != null && product.getCategory().equals(categoryName))
+                .map(product -> {
+                    inventoryLedger.available(product.getId()).ifPresent(product::setCurrentQuantity);
+                    return product;
+                })
                 .filter(product -> userRole == UserRole.ADMIN || product.getCurrentQuantity() > 0)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found in the specified category"));
 
-
     }
 
     public Product createNewProduct(ProductRequest productRequest) {
 
-        Product product = Product.builder()
+        boolean hasImage = productRequest.getImage() != null && !productRequest.getImage().isBlank();
+
+        if (!hasImage && productRequest.getImageHash() == null) {
+            throw new InvalidImageException("A product needs an image or an uploaded image hash.");
+        }
+
+        if (isReservedCategory(productRequest.getCategory())) {
+            throw new InvalidCatalogQueryException("Category name '" + productRequest.getCategory() + "' is reserved.");
+        }
+
+        // The hash comes from the request body, so an unknown one is a bad request rather than a missing resource.
+        if (productRequest.getImageHash() != null && !isStoredImage(productRequest.getImageHash())) {
+            throw new InvalidImageException("Image hash does not match an uploaded image.");
+        }
+
+        Product product = toNewProduct(productRequest);
+
+        productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.CREATED, product));
+
+        return product;
+    }
+
+    public boolean isReservedCategory(String category) {
+
+        return category != null && RESERVED_CATEGORY_NAMES.contains(category.trim().toLowerCase(Locale.ROOT));
+    }
+
+    boolean isStoredImage(String imageHash) {
+
+        return imageStore.exists(imageHash);
+    }
+
+    public Product toNewProduct(ProductRequest productRequest) {
+
+        return Product.builder()
                 .name(productRequest.getName())
                 .description(productRequest.getDescription())
                 .salePrice(productRequest.getSalePrice())
                 .image(productRequest.getImage())
+                .imageHash(productRequest.getImageHash())
                 .currentQuantity(productRequest.getQuantity())
                 .category(productRequest.getCategory())
                 .restockThreshold(5)
                 .inactive(false)
                 .build();
-
-        productRepository.save(product);
-
-        return product;
     }
 
     public boolean updateProductQuantity(String category, String productName, int newQuantity, UserRole userRole) {
 
-        Optional<Product> optionalProduct = productRepository.findByCategoryAndName(category, productName);
+        Optional<Product> optionalProduct = productRepository.findActiveByName(productName)
+                .filter(product -> category.equals(product.getCategory()));
 
         if (userRole != UserRole.ADMIN) {
             throw new AuthorizationDeniedException("You do not have permission to update this product");
@@ -80,27 +249,100 @@ public class ProductService {
 
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            product.setCurrentQuantity(newQuantity);
-            productRepository.save(product);
+            inventoryLedger.set(product.getId(), newQuantity);
+            eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, product).withCurrentQuantity(newQuantity));
             return true;
         }
         return false;
     }
 
+    // Applies many stock updates in one transaction: two lookups (by id and by name) load every
+    // target, and the journal rows for the new levels are written as JDBC batches on commit.
+    @Transactional
+    public BulkQuantityUpdateResponse updateProductQuantities(List<QuantityUpdateEntry> entries, UserRole userRole) {
+
+        if (userRole != UserRole.ADMIN) {
+            throw new AuthorizationDeniedException("You do not have permission to update this product");
+        }
+
+        // Checked up front so that no level is set before a bad entry is found.
+        if (entries == null || entries.isEmpty() || entries.contains(null)) {
+            throw new InvalidQuantityException("Quantity updates must be a non-empty list of entries.");
+        }
+        if (entries.stream().anyMatch(entry -> entry.getQuantity() < 0)) {
+            throw new InvalidQuantityException("Quantity must not be negative.");
+        }
+
+        List<UUID> ids = entries.stream()
+                .map(QuantityUpdateEntry::getProductId)
+                .filter(Objects::nonNull)
+                .toList();
+
+        List<String> names = entries.stream()
+                .filter(entry -> entry.getProductId() == null && entry.getName() != null)
+                .map(QuantityUpdateEntry::getName)
+                .toList();
+
+        Map<UUID, Product> productsById = ids.isEmpty() ? Map.of() : productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Names are matched case-insensitively, like the MySQL collation that findAllByNameIn runs under.
+        Map<String, Product> productsByName = names.isEmpty() ? Map.of() : productRepository.findAllByNameIn(names).stream()
+                .collect(Collectors.toMap(product -> nameKey(product.getName()), Function.identity(), (first, second) -> first));
+
+        Map<UUID, ProductChangedEvent> updated = new LinkedHashMap<>();
+        List<QuantityUpdateEntry> notFound = new ArrayList<>();
+
+        for (QuantityUpdateEntry entry : entries) {
+
+            Product product = entry.getProductId() != null
+                    ? productsById.get(entry.getProductId())
+                    : entry.getName() == null ? null : productsByName.get(nameKey(entry.getName()));
+
+            if (product == null || (entry.getCategory() != null && !entry.getCategory().equals(product.getCategory()))) {
+                notFound.add(entry);
+                continue;
+            }
+
+            inventoryLedger.set(product.getId(), entry.getQuantity());
+            updated.put(product.getId(), ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, product).withCurrentQuantity(entry.getQuantity()));
+        }
+
+        updated.values().forEach(eventPublisher::publishEvent);
+
+        return new BulkQuantityUpdateResponse(updated.size(), notFound);
+    }
+
+    private static String nameKey(String name) {
+
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     public List<String> getAllCategories() {
 
-        return productRepository.findAllCategories();
+        return categoryFacets.categories();
     }
 
+    public List<CategoryFacet> getCategoryFacets() {
+
+        return categoryFacets.facets();
+    }
+
+    // Retiring only writes the inactive columns, so it cannot overwrite stock flushed by the inventory ledger meanwhile.
+    @Transactional
     public void removeProduct(UUID productId) {
 
-        Optional<Product> optionalProduct = productRepository.findById(productId);
+        Optional<Product> optionalProduct = productRepository.findActiveById(productId);
 
         if (optionalProduct.isPresent()) {
 
+            LocalDateTime inactivatedAt = LocalDateTime.now();
+            productRepository.deactivate(productId, inactivatedAt);
+
             Product product = optionalProduct.get();
             product.setInactive(true);
-            productRepository.save(product);
+            product.setInactivatedAt(inactivatedAt);
+            eventPublisher.publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.REMOVED, product));
 
         }
     }
@@ -0,0 +1,284 @@
+package app.product.stream;
+
+import app.event.ProductChangedEvent;
+import app.exception.TooManySubscribersException;
+import app.web.mapper.DtoMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans committed product changes out to Server-Sent Events subscribers. Connections are held by
+// servlet async support, not by threads, and their number is capped. Each event is serialized once
+// and offered to a bounded queue per subscriber. A fixed pool of writer threads drains a subscriber's
+// queue only while it has events, so a client that reads slowly delays itself and, at worst, holds one
+// writer. A subscriber whose queue overflows, or whose current write has been blocked longer than the
+// send timeout, is evicted and counted; its client sees the stream end and can reconnect and re-read
+// the catalog. Writers are platform threads: emitter writes block inside synchronized methods, which
+// would pin the carriers of virtual threads.
+@Slf4j
+@Component
+public class ProductChangeBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final long sendTimeoutNanos;
+    private final int subscriberQueueCapacity;
+    private final int maxSubscribers;
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService writers;
+    private final Counter droppedCounter;
+    private final Counter evictedCounter;
+
+    public ProductChangeBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${app.products.stream.timeout:30m}") Duration timeout,
+                                    @Value("${app.products.stream.send-timeout:10s}") Duration sendTimeout,
+                                    @Value("${app.products.stream.queue-capacity:1000}") int subscriberQueueCapacity,
+                                    @Value("${app.products.stream.writer-threads:4}") int writerThreads,
+                                    @Value("${app.products.stream.max-subscribers:1000}") int maxSubscribers) {
+
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.droppedCounter = meterRegistry.counter("products.stream.dropped");
+        this.evictedCounter = meterRegistry.counter("products.stream.evicted");
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // At most one drain task per subscriber is queued, so the capped subscriber count also bounds the queue.
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-stream-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("products.stream.subscribers", subscribers, Map::size).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+
+        return register(new SseEmitter(timeout.toMillis()));
+    }
+
+    // Takes an emitter created by the caller; subscribe() creates one with the configured timeout.
+    public SseEmitter register(SseEmitter emitter) {
+
+        if (subscriberSlots.incrementAndGet() > maxSubscribers) {
+            subscriberSlots.decrementAndGet();
+            throw new TooManySubscribersException("Too many product stream subscribers.");
+        }
+
+        emitter.onCompletion(() -> remove(emitter));
+        emitter.onTimeout(() -> remove(emitter));
+        emitter.onError(error -> remove(emitter));
+
+        subscribers.put(emitter, new Subscriber(emitter));
+
+        return emitter;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(DtoMapper.toProductChangeResponse(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize product change {}: {}", event.productId(), e.getMessage());
+            return;
+        }
+
+        // The id is taken for every event, so a gap in the ids a client sees means it missed events.
+        long id = sequence.incrementAndGet();
+
+        // The event is built once; SseEventBuilder.build() is not safe to call again per emitter.
+        publish(SseEmitter.event()
+                .id(Long.toString(id))
+                .name(event.type().name().toLowerCase(Locale.ROOT))
+                .data(data, MediaType.APPLICATION_JSON)
+                .build());
+    }
+
+    // Also evicts subscribers whose current write has been blocked longer than the send timeout.
+    @Scheduled(fixedRateString = "${app.products.stream.heartbeat:15000}")
+    public void heartbeat() {
+
+        long now = System.nanoTime();
+
+        for (Subscriber subscriber : subscribers.values()) {
+            long sendStartedAt = subscriber.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutNanos) {
+                evict(subscriber, new TimeoutException("Write to product stream subscriber timed out."));
+            }
+        }
+
+        if (!subscribers.isEmpty()) {
+            publish(SseEmitter.event().comment("keep-alive").build());
+        }
+    }
+
+    public int subscriberCount() {
+
+        return subscribers.size();
+    }
+
+    private void publish(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+
+        subscribers.values().forEach(subscriber -> subscriber.offer(message));
+    }
+
+    private void remove(SseEmitter emitter) {
+
+        if (subscribers.remove(emitter) != null) {
+            subscriberSlots.decrementAndGet();
+        }
+    }
+
+    private void evict(Subscriber subscriber, Throwable cause) {
+
+        if (!subscribers.remove(subscriber.emitter, subscriber)) {
+            return;
+        }
+
+        subscriberSlots.decrementAndGet();
+        evictedCounter.increment();
+        subscriber.close(cause);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        writers.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+        subscribers.clear();
+        subscriberSlots.set(0);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ArrayBlockingQueue<>(subscriberQueueCapacity);
+        // Held by the one thread allowed to touch the emitter: a drain, or the thread that completes it.
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the write in progress started, 0 when no write is in progress.
+        private volatile long sendStartedAt;
+        private volatile Throwable closeCause;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+
+            if (!pending.offer(message)) {
+                droppedCounter.increment();
+                evict(this, new IOException("Product stream subscriber fell too far behind."));
+                return;
+            }
+
+            schedule();
+        }
+
+        // Completing waits for the emitter's lock, which a blocked write holds. So an evicted subscriber is
+        // completed here only when no drain is running; otherwise the drain completes it once its write returns.
+        private void close(Throwable cause) {
+
+            closeCause = cause;
+
+            if (draining.compareAndSet(false, true)) {
+                complete();
+            }
+        }
+
+        private void complete() {
+
+            pending.clear();
+
+            try {
+                emitter.completeWithError(closeCause);
+            } catch (IllegalStateException e) {
+                log.debug("Product stream subscriber was already completed.");
+            }
+        }
+
+        // At most one drain runs per subscriber, which keeps its events in order.
+        private void schedule() {
+
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+
+                while (closeCause == null && (message = pending.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(message);
+                    sendStartedAt = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                evict(this, e);
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+
+            if (closeCause != null) {
+                if (draining.compareAndSet(false, true)) {
+                    complete();
+                }
+                return;
+            }
+
+            // An offer that raced with the end of the loop saw the drain still running and did not schedule one.
+            if (!pending.isEmpty() && subscribers.get(emitter) == this) {
+                schedule();
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import app.basket.service.BasketService;
 import app.security.AuthenticationMetadata;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.BasketOperationsRequest;
 import app.web.dto.BasketRequest;
 import app.web.dto.BasketResponse;
 import app.web.mapper.DtoMapper;
@@ -59,6 +60,20 @@ public class BasketController {
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
+    // Applies an ordered list of add, set-quantity and remove operations in one transaction and returns the resulting basket.
+    @PostMapping("/operations")
+    public ResponseEntity<BasketResponse> applyOperations(@RequestBody BasketOperationsRequest basketOperationsRequest, @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata) {
+
+        String email = authenticationMetadata.getUsername();
+        User user = userService.getUserByEmail(email);
+
+        Basket basket = basketService.applyOperations(user, basketOperationsRequest.getOperations());
+
+        BasketResponse response = DtoMapper.toBasketResponse(basket);
+
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
     @PutMapping("{productId}/quantity")
     public ResponseEntity<BasketResponse> updateItemQuantity(@PathVariable UUID productId, @RequestParam int newQuantity, @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata) {
 
@@ -0,0 +1,142 @@
+package app.web;
+
+import app.exception.InvalidImageException;
+import app.exception.ResourceNotFoundException;
+import app.image.model.ByteRange;
+import app.image.model.ImageVariant;
+import app.image.model.StoredImage;
+import app.image.service.ImageStore;
+import app.image.service.ImageVariantService;
+import app.web.dto.ImageUploadResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static app.web.Paths.API_V1_BASE_PATH;
+
+@RestController
+@RequestMapping(API_V1_BASE_PATH + "/images")
+@Tag(name = "Image Endpoints", description = "endpoints related to the product images")
+public class ImageController {
+
+    // Content-addressed files never change, so browsers and proxies may keep them for a year without revalidating.
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final ImageStore imageStore;
+    private final ImageVariantService imageVariantService;
+
+    @Autowired
+    public ImageController(ImageStore imageStore, ImageVariantService imageVariantService) {
+        this.imageStore = imageStore;
+        this.imageVariantService = imageVariantService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImageUploadResponse> uploadImage(@RequestParam("file") MultipartFile file) throws IOException {
+
+        if (file.isEmpty()) {
+            throw new InvalidImageException("Image file is empty.");
+        }
+
+        String hash;
+        try (InputStream inputStream = file.getInputStream()) {
+            hash = imageStore.store(inputStream);
+        }
+
+        ImageUploadResponse response = new ImageUploadResponse(hash, API_V1_BASE_PATH + "/images/" + hash);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/{hash}")
+    public ResponseEntity<?> getImage(@PathVariable String hash,
+                                      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+
+        StoredImage image = imageStore.find(hash)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found."));
+
+        return serve(image, "\"" + image.hash() + "\"", IMMUTABLE_CACHE_CONTROL, range, ifNoneMatch);
+    }
+
+    @GetMapping("/{hash}/{variant}")
+    public ResponseEntity<?> getImageVariant(@PathVariable String hash,
+                                             @PathVariable String variant,
+                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+
+        ImageVariant imageVariant = ImageVariant.fromSlug(variant)
+                .orElseThrow(() -> new ResourceNotFoundException("Image variant not found."));
+
+        Optional<StoredImage> resized = imageStore.findVariant(hash, imageVariant);
+
+        if (resized.isPresent()) {
+            return serve(resized.get(), "\"" + hash + "-" + imageVariant.getSlug() + "\"", IMMUTABLE_CACHE_CONTROL, range, ifNoneMatch);
+        }
+
+        StoredImage original = imageStore.find(hash)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found."));
+
+        // The variant is not ready yet: ask for it once and serve the original without letting caches keep it under this URL.
+        imageVariantService.requestVariants(hash);
+
+        return serve(original, "\"" + hash + "\"", CacheControl.noCache().getHeaderValue(), range, ifNoneMatch);
+    }
+
+    // The body is a file resource (or a region of one for a range request) that Spring copies to the
+    // response through a small buffer, so an image is never held whole on the heap. This is a buffered
+    // copy, not a zero-copy transfer.
+    private ResponseEntity<?> serve(StoredImage image, String eTag, String cacheControl, String range, String ifNoneMatch) throws IOException {
+
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+
+        ByteRange byteRange = ByteRange.parse(range, image.size());
+
+        if (byteRange == null) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + image.size())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(byteRange.partial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(MediaType.parseMediaType(image.type().getContentType()));
+
+        FileSystemResource file = new FileSystemResource(image.path());
+
+        // The region converter writes Content-Range and Content-Length itself.
+        if (byteRange.partial()) {
+            return response.body(new ResourceRegion(file, byteRange.start(), byteRange.length()));
+        }
+
+        // Spring answers a Range header on a 200 file resource by itself. A header ByteRange chose to ignore
+        // (malformed or multi-range) stays ignored by handing over a plain stream, which Spring leaves alone.
+        Resource body = range == null ? file : new InputStreamResource(Files.newInputStream(image.path()));
+
+        return response.contentLength(image.size()).body(body);
+    }
+}
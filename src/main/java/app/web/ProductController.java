@@ -1,20 +1,44 @@
 package app.web;
 
+import app.product.catalog.CatalogPage;
+import app.product.catalog.CatalogVersion;
 import app.product.model.Product;
+import app.product.model.ProductSummary;
+import app.product.service.ProductArchiveService;
+import app.product.service.ProductExportService;
+import app.product.service.ProductImportService;
 import app.product.service.ProductService;
+import app.product.stream.ProductChangeBroadcaster;
 import app.security.AuthenticationMetadata;
 import app.user.model.UserRole;
+import app.web.dto.BulkQuantityUpdateRequest;
+import app.web.dto.BulkQuantityUpdateResponse;
+import app.web.dto.CategoryFacetResponse;
+import app.web.dto.ProductArchiveResponse;
+import app.web.dto.ProductImportReport;
 import app.web.dto.ProductRequest;
 import app.web.dto.ProductResponse;
+import app.web.dto.ProductSuggestionResponse;
+import app.web.dto.ProductSummaryResponse;
 import app.web.dto.UpdateQuantityRequest;
 import app.web.mapper.DtoMapper;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,42 +50,169 @@ import static app.web.Paths.API_V1_BASE_PATH;
 @Tag(name = "Product Endpoints", description = "endpoints related to the products")
 public class ProductController {
 
-    private final ProductService productService;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
 
-    public ProductController(ProductService productService) {
+    private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final CatalogVersion catalogVersion;
+    private final ProductChangeBroadcaster productChangeBroadcaster;
+    private final ProductArchiveService productArchiveService;
+
+    public ProductController(ProductService productService, ProductExportService productExportService,
+                             ProductImportService productImportService, CatalogVersion catalogVersion,
+                             ProductChangeBroadcaster productChangeBroadcaster, ProductArchiveService productArchiveService) {
         this.productService = productService;
+        this.productExportService = productExportService;
+        this.productImportService = productImportService;
+        this.catalogVersion = catalogVersion;
+        this.productChangeBroadcaster = productChangeBroadcaster;
+        this.productArchiveService = productArchiveService;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts(@AuthenticationPrincipal AuthenticationMetadata authenticationMetadata) {
+    public ResponseEntity<List<ProductSummaryResponse>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) BigDecimal minPrice,
+                                                                @RequestParam(required = false) BigDecimal maxPrice,
+                                                                @RequestParam(required = false) String sort,
+                                                                @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata,
+                                                                WebRequest webRequest) {
 
         UserRole userRole = (authenticationMetadata != null) ? authenticationMetadata.getUserRole() : UserRole.USER;
 
-        List<ProductResponse> productsResponse = productService.getAllProducts(userRole).stream()
-                .map(DtoMapper::toProductResponse)
+        String eTag = catalogVersion.eTag("all", userRole, cursor, limit, minPrice, maxPrice, sort);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        CatalogPage<ProductSummary> page = isPlainListing(minPrice, maxPrice, sort)
+                ? productService.getAllProducts(userRole, cursor, limit)
+                : productService.queryCatalog(null, minPrice, maxPrice, sort, userRole, cursor, limit);
+
+        List<ProductSummaryResponse> productsResponse = page.items().stream()
+                .map(DtoMapper::toProductSummaryResponse)
                 .toList();
 
-        return ResponseEntity.status(HttpStatus.OK).body(productsResponse);
+        return okWithNextCursor(page, eTag).body(productsResponse);
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
+    public ResponseEntity<List<String>> getAllCategories(WebRequest webRequest) {
+
+        String eTag = catalogVersion.eTag("categories");
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
 
         List<String> categories = productService.getAllCategories();
 
-        return ResponseEntity.status(HttpStatus.OK).body(categories);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).cacheControl(CacheControl.noCache()).body(categories);
+    }
+
+    @GetMapping("/categories/facets")
+    public ResponseEntity<List<CategoryFacetResponse>> getCategoryFacets(WebRequest webRequest) {
+
+        String eTag = catalogVersion.eTag("facets");
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        List<CategoryFacetResponse> facets = productService.getCategoryFacets().stream()
+                .map(DtoMapper::toCategoryFacetResponse)
+                .toList();
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).cacheControl(CacheControl.noCache()).body(facets);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportProducts(HttpServletResponse response) throws IOException {
+
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"");
+
+        productExportService.exportProducts(response.getOutputStream());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(HttpServletResponse response) {
+
+        // Tells nginx not to buffer the stream, otherwise events only reach clients in chunks.
+        response.setHeader("X-Accel-Buffering", "no");
+
+        return productChangeBroadcaster.subscribe();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSummaryResponse>> searchProducts(@RequestParam("q") String query,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata,
+                                                                WebRequest webRequest) {
+
+        UserRole userRole = (authenticationMetadata != null) ? authenticationMetadata.getUserRole() : UserRole.USER;
+
+        String eTag = catalogVersion.eTag("search", userRole, query, limit);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        List<ProductSummaryResponse> productsResponse = productService.searchProducts(query, userRole, limit).stream()
+                .map(DtoMapper::toProductSummaryResponse)
+                .toList();
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).cacheControl(CacheControl.noCache()).body(productsResponse);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionResponse>> suggestProducts(@RequestParam String prefix,
+                                                                           @RequestParam(required = false) Integer limit,
+                                                                           @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata,
+                                                                           WebRequest webRequest) {
+
+        UserRole userRole = (authenticationMetadata != null) ? authenticationMetadata.getUserRole() : UserRole.USER;
+
+        String eTag = catalogVersion.eTag("suggest", userRole, prefix, limit);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        List<ProductSuggestionResponse> suggestions = productService.suggestProducts(prefix, userRole, limit).stream()
+                .map(DtoMapper::toProductSuggestionResponse)
+                .toList();
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).cacheControl(CacheControl.noCache()).body(suggestions);
     }
 
     @GetMapping("/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category, @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata) {
+    public ResponseEntity<List<ProductSummaryResponse>> getProductsByCategory(@PathVariable String category,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer limit,
+                                                                       @RequestParam(required = false) BigDecimal minPrice,
+                                                                       @RequestParam(required = false) BigDecimal maxPrice,
+                                                                       @RequestParam(required = false) String sort,
+                                                                       @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata,
+                                                                       WebRequest webRequest) {
 
         UserRole userRole = (authenticationMetadata != null) ? authenticationMetadata.getUserRole() : UserRole.USER;
 
-        List<ProductResponse> productsResponse = productService.getProductsByCategory(category, userRole).stream()
-                .map(DtoMapper::toProductResponse)
+        String eTag = catalogVersion.eTag("category", category, userRole, cursor, limit, minPrice, maxPrice, sort);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
+
+        CatalogPage<ProductSummary> page = isPlainListing(minPrice, maxPrice, sort)
+                ? productService.getProductsByCategory(category, userRole, cursor, limit)
+                : productService.queryCatalog(category, minPrice, maxPrice, sort, userRole, cursor, limit);
+
+        List<ProductSummaryResponse> productsResponse = page.items().stream()
+                .map(DtoMapper::toProductSummaryResponse)
                 .toList();
 
-       return ResponseEntity.status(HttpStatus.OK).body(productsResponse);
+       return okWithNextCursor(page, eTag).body(productsResponse);
     }
 
     @GetMapping("/{category}/{name}")
@@ -95,6 +246,18 @@ public class ProductController {
 
     }
 
+    @PutMapping("/quantities")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkQuantityUpdateResponse> updateQuantities(@RequestBody @Valid BulkQuantityUpdateRequest bulkQuantityUpdateRequest,
+                                                                       @AuthenticationPrincipal AuthenticationMetadata authenticationMetadata) {
+
+        UserRole userRole = authenticationMetadata.getUserRole();
+
+        BulkQuantityUpdateResponse response = productService.updateProductQuantities(bulkQuantityUpdateRequest.getEntries(), userRole);
+
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponse> createNewProduct(@RequestBody @Valid ProductRequest productRequest) {
@@ -106,6 +269,19 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(productResponse);
     }
 
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportReport> importProducts(HttpServletRequest request) throws IOException {
+
+        ProductImportService.Format format = request.getContentType() != null && TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.JSON;
+
+        ProductImportReport report = productImportService.importProducts(request.getInputStream(), format);
+
+        return ResponseEntity.status(HttpStatus.OK).body(report);
+    }
+
     @DeleteMapping("/{productId}")
     @PreAuthorize("hasRole('ADMIN')")
     public  ResponseEntity<Void> removeProduct(@PathVariable UUID productId) {
@@ -115,4 +291,47 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    @PostMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductArchiveResponse> archiveInactiveProducts() {
+
+        int archived = productArchiveService.archiveInactiveProducts();
+
+        return ResponseEntity.status(HttpStatus.OK).body(new ProductArchiveResponse(archived));
+    }
+
+    @PostMapping("/archive/{productId}/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductResponse> restoreProduct(@PathVariable UUID productId) {
+
+        Product product = productArchiveService.restoreProduct(productId);
+
+        ProductResponse productResponse = DtoMapper.toProductResponse(product);
+
+        return ResponseEntity.status(HttpStatus.OK).body(productResponse);
+    }
+
+    private static boolean isPlainListing(BigDecimal minPrice, BigDecimal maxPrice, String sort) {
+
+        return minPrice == null && maxPrice == null && (sort == null || sort.isBlank());
+    }
+
+    private <T> ResponseEntity<T> notModified(String eTag) {
+
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    private ResponseEntity.BodyBuilder okWithNextCursor(CatalogPage<?> page, String eTag) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache());
+
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+
+        return response;
+    }
+
 }
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -23,4 +24,6 @@ public class BasketItemResponse {
     private int quantity;
 
     private BigDecimal itemTotalPrice;
+
+    private LocalDateTime reservedUntil;
 }
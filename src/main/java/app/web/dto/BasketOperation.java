@@ -0,0 +1,30 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BasketOperation {
+
+    public enum Type {
+        ADD,
+        SET_QUANTITY,
+        REMOVE
+    }
+
+    private Type type;
+
+    // ADD needs the product; SET_QUANTITY and REMOVE take either the basket item or the product of the line.
+    private UUID productId;
+
+    private UUID basketItemId;
+
+    private int quantity;
+}
@@ -0,0 +1,15 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BasketOperationsRequest {
+
+    private List<BasketOperation> operations;
+}
@@ -0,0 +1,17 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkQuantityUpdateResponse {
+
+    private int updated;
+
+    private List<QuantityUpdateEntry> notFound;
+}
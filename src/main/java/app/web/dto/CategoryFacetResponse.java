@@ -0,0 +1,17 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryFacetResponse {
+
+    private String categoryName;
+
+    private int productCount;
+
+    private int inStockCount;
+}
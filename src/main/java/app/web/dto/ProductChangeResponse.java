@@ -0,0 +1,28 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductChangeResponse {
+
+    private String type;
+
+    private UUID productId;
+
+    private String name;
+
+    private String categoryName;
+
+    private BigDecimal salePrice;
+
+    private int currentQuantity;
+}
@@ -0,0 +1,38 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductExportResponse {
+
+    private UUID id;
+
+    private String name;
+
+    private String description;
+
+    private BigDecimal costPrice;
+
+    private BigDecimal salePrice;
+
+    private String categoryName;
+
+    private String image;
+
+    private String imageHash;
+
+    private int currentQuantity;
+
+    private Integer restockThreshold;
+
+    private boolean inactive;
+}
@@ -0,0 +1,23 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportReport {
+
+    private int total;
+
+    private int imported;
+
+    private int rejected;
+
+    private long durationMillis;
+
+    private List<ProductImportRowResult> rows;
+}
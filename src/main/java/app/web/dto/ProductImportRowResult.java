@@ -0,0 +1,29 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportRowResult {
+
+    public enum Status {
+        IMPORTED,
+        REJECTED,
+        FAILED
+    }
+
+    private int row;
+
+    private String name;
+
+    private Status status;
+
+    private String message;
+
+    private UUID productId;
+}
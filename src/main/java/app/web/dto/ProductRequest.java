@@ -1,6 +1,8 @@
 package app.web.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 import lombok.Builder;
 import lombok.Data;
@@ -16,15 +18,17 @@ public class ProductRequest {
 
     private String description;
 
-    @NotBlank
+    @NotNull
+    @PositiveOrZero
     private BigDecimal salePrice;
 
-    @NotBlank
+    @PositiveOrZero
     private int quantity;
 
-    @NotBlank
     private String image;
 
+    private String imageHash;
+
     @NotBlank
     private String category;
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -26,5 +27,9 @@ public class ProductResponse {
 
     private String image;
 
+    private String imageHash;
+
+    private Map<String, String> imageVariants;
+
     private int currentQuantity;
 }
@@ -0,0 +1,21 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSuggestionResponse {
+
+    private UUID id;
+
+    private String name;
+
+    private String categoryName;
+}
@@ -0,0 +1,33 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductSummaryResponse {
+
+    private UUID id;
+
+    private String name;
+
+    private BigDecimal salePrice;
+
+    private String categoryName;
+
+    private String image;
+
+    private String imageHash;
+
+    private Map<String, String> imageVariants;
+
+    private int currentQuantity;
+}
@@ -0,0 +1,25 @@
+package app.web.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuantityUpdateEntry {
+
+    private UUID productId;
+
+    private String category;
+
+    private String name;
+
+    @PositiveOrZero
+    private int quantity;
+}
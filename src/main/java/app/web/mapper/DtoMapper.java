@@ -1,14 +1,28 @@
 package app.web.mapper;
 
 import app.basket.model.Basket;
+import app.event.ProductChangedEvent;
+import app.image.model.ImageVariant;
+import app.product.catalog.CategoryFacet;
+import app.product.model.Money;
 import app.product.model.Product;
+import app.product.model.ProductSummary;
+import app.product.search.ProductSuggestion;
 import app.web.dto.BasketItemResponse;
 import app.web.dto.BasketResponse;
+import app.web.dto.CategoryFacetResponse;
+import app.web.dto.ProductChangeResponse;
+import app.web.dto.ProductExportResponse;
 import app.web.dto.ProductResponse;
+import app.web.dto.ProductSuggestionResponse;
+import app.web.dto.ProductSummaryResponse;
 import lombok.experimental.UtilityClass;
 
-import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import static app.web.Paths.API_V1_BASE_PATH;
 
 @UtilityClass
 public class DtoMapper {
@@ -19,14 +33,15 @@ public class DtoMapper {
                 .map( item -> new BasketItemResponse(
                         item.getId(),
                         item.getProduct().getName(),
-                        item.getProduct().getSalePrice(),
+                        Money.toDecimal(item.getUnitPriceMinor()),
                         item.getProduct().getImage(),
                         item.getQuantity(),
-                        item.getProduct().getSalePrice().multiply(BigDecimal.valueOf(item.getQuantity()))
+                        Money.toDecimal(item.getUnitPriceMinor() * item.getQuantity()),
+                        item.getReservedUntil()
 
                 )).toList();
 
-        return new BasketResponse(itemsResponse, basket.getTotalPrice());
+        return new BasketResponse(itemsResponse, Money.toDecimal(basket.getTotalPriceMinor()));
     }
 
     public static ProductResponse toProductResponse(Product product) {
@@ -38,7 +53,76 @@ public class DtoMapper {
                 .salePrice(product.getSalePrice())
                 .categoryName(product.getCategory())
                 .image(product.getImage())
+                .imageHash(product.getImageHash())
+                .imageVariants(toImageVariantUrls(product.getImageHash()))
+                .currentQuantity(product.getCurrentQuantity())
+                .build();
+    }
+
+    public static CategoryFacetResponse toCategoryFacetResponse(CategoryFacet categoryFacet) {
+
+        return new CategoryFacetResponse(categoryFacet.category(), categoryFacet.productCount(), categoryFacet.inStockCount());
+    }
+
+    public static ProductExportResponse toProductExportResponse(Product product) {
+
+        return ProductExportResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .costPrice(product.getCostPrice())
+                .salePrice(product.getSalePrice())
+                .categoryName(product.getCategory())
+                .image(product.getImage())
+                .imageHash(product.getImageHash())
                 .currentQuantity(product.getCurrentQuantity())
+                .restockThreshold(product.getRestockThreshold())
+                .inactive(Boolean.TRUE.equals(product.getInactive()))
                 .build();
     }
+
+    public static ProductSummaryResponse toProductSummaryResponse(ProductSummary product) {
+
+        return ProductSummaryResponse.builder()
+                .id(product.id())
+                .name(product.name())
+                .salePrice(product.salePrice())
+                .categoryName(product.category())
+                .image(product.image())
+                .imageHash(product.imageHash())
+                .imageVariants(toImageVariantUrls(product.imageHash()))
+                .currentQuantity(product.currentQuantity())
+                .build();
+    }
+
+    public static ProductChangeResponse toProductChangeResponse(ProductChangedEvent event) {
+
+        return ProductChangeResponse.builder()
+                .type(event.type().name())
+                .productId(event.productId())
+                .name(event.name())
+                .categoryName(event.category())
+                .salePrice(event.salePrice())
+                .currentQuantity(event.currentQuantity())
+                .build();
+    }
+
+    public static ProductSuggestionResponse toProductSuggestionResponse(ProductSuggestion suggestion) {
+
+        return new ProductSuggestionResponse(suggestion.id(), suggestion.name(), suggestion.category());
+    }
+
+    public static Map<String, String> toImageVariantUrls(String imageHash) {
+
+        if (imageHash == null) {
+            return null;
+        }
+
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            urls.put(variant.getSlug(), API_V1_BASE_PATH + "/images/" + imageHash + "/" + variant.getSlug());
+        }
+
+        return urls;
+    }
 }
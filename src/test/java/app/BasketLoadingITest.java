@@ -0,0 +1,125 @@
+package app;
+
+import app.basket.model.Basket;
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.User;
+import app.user.repository.UserRepository;
+import app.web.dto.BasketResponse;
+import app.web.mapper.DtoMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class BasketLoadingITest {
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryLedger.flush();
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void loadingBasket_shouldTakeOneStatementHoweverManyLinesItHas() {
+
+        // Given
+        User smallBasketOwner = aShopperWithLines(1);
+        User largeBasketOwner = aShopperWithLines(12);
+
+        // When
+        long smallBasketStatements = statementsToRender(smallBasketOwner, 1);
+        long largeBasketStatements = statementsToRender(largeBasketOwner, 12);
+
+        // Then
+        assertEquals(1, smallBasketStatements);
+        assertEquals(smallBasketStatements, largeBasketStatements);
+    }
+
+    @Test
+    void addingToExistingBasket_shouldReturnSnapshotWithEveryLine() {
+
+        // Given
+        User shopper = aShopperWithLines(3);
+        Product tulip = productService.createNewProduct(aProductRequest("Tulips", "3.00", 5));
+
+        // When
+        Basket basket = basketService.addToBasket(shopper, tulip.getId(), 2);
+
+        // Then
+        assertEquals(4, basket.getItems().size());
+        assertEquals(1500, basket.getTotalPriceMinor());
+    }
+
+    // Products are evicted from the second-level cache first, so a per-line product load would show up as a statement.
+    private long statementsToRender(User user, int expectedLines) {
+
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+
+        Basket basket = basketService.findUserBasket(user);
+        BasketResponse response = DtoMapper.toBasketResponse(basket);
+
+        assertEquals(expectedLines, response.getItems().size());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User aShopperWithLines(int lines) {
+
+        User shopper = userRepository.save(aNewUser());
+
+        for (int i = 0; i < lines; i++) {
+            basketService.addToBasket(shopper, productService.createNewProduct(aProductRequest("Tulips", "3.00", 5)).getId(), 1);
+        }
+
+        return shopper;
+    }
+}
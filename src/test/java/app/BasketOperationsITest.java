@@ -0,0 +1,123 @@
+package app;
+
+import app.basket.model.Basket;
+import app.basket.model.BasketItem;
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.exception.NotEnoughInStockException;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.User;
+import app.user.repository.UserRepository;
+import app.web.dto.BasketOperation;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class BasketOperationsITest {
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryLedger.flush();
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void operations_shouldBeAppliedInOrderAndReturnOneSnapshot() {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        Product lily = productService.createNewProduct(aProductRequest("Bouquets", "5.00", 5));
+        Product tulip = productService.createNewProduct(aProductRequest("Bouquets", "5.00", 5));
+        Product rose = productService.createNewProduct(aProductRequest("Bouquets", "5.00", 5));
+        UUID lilyLineId = basketService.addToBasket(shopper, lily.getId(), 2).getItems().getFirst().getId();
+
+        // When
+        Basket basket = basketService.applyOperations(shopper, List.of(
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(tulip.getId()).quantity(1).build(),
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(rose.getId()).quantity(2).build(),
+                BasketOperation.builder().type(BasketOperation.Type.SET_QUANTITY).productId(tulip.getId()).quantity(3).build(),
+                BasketOperation.builder().type(BasketOperation.Type.REMOVE).basketItemId(lilyLineId).build()));
+
+        // Then
+        assertEquals(2, basket.getItems().size());
+        assertEquals(2500, basket.getTotalPriceMinor());
+        assertEquals(3, quantityOf(basketService.findUserBasket(shopper), tulip));
+        assertEquals(2, quantityOf(basketService.findUserBasket(shopper), rose));
+        assertEquals(5, inventoryLedger.available(lily.getId()).getAsInt());
+        assertEquals(2, inventoryLedger.available(tulip.getId()).getAsInt());
+        assertEquals(3, inventoryLedger.available(rose.getId()).getAsInt());
+    }
+
+    @Test
+    void operationsThatRunOutOfStock_shouldLeaveBasketAndStockUntouched() {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        Product lily = productService.createNewProduct(aProductRequest("Bouquets", "5.00", 5));
+        Product scarce = productService.createNewProduct(aProductRequest("Bouquets", "5.00", 1));
+        basketService.addToBasket(shopper, lily.getId(), 1);
+
+        // When & Then
+        assertThrows(NotEnoughInStockException.class, () -> basketService.applyOperations(shopper, List.of(
+                BasketOperation.builder().type(BasketOperation.Type.SET_QUANTITY).productId(lily.getId()).quantity(4).build(),
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(scarce.getId()).quantity(2).build())));
+
+        Basket basket = basketService.findUserBasket(shopper);
+        assertEquals(1, basket.getItems().size());
+        assertEquals(1, quantityOf(basket, lily));
+        assertEquals(4, inventoryLedger.available(lily.getId()).getAsInt());
+        assertEquals(1, inventoryLedger.available(scarce.getId()).getAsInt());
+    }
+
+    private static int quantityOf(Basket basket, Product product) {
+
+        return basket.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .mapToInt(BasketItem::getQuantity)
+                .sum();
+    }
+
+}
@@ -0,0 +1,102 @@
+package app;
+
+import app.basket.model.Basket;
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketPriceBackfill;
+import app.basket.service.BasketService;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.User;
+import app.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class BasketPriceBackfillITest {
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private BasketPriceBackfill basketPriceBackfill;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryLedger.flush();
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void newBasket_shouldStillWriteLegacyTotalColumn() {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        Product peony = productService.createNewProduct(aProductRequest("Peonies", "4.50", 5));
+
+        // When
+        basketService.addToBasket(shopper, peony.getId(), 2);
+
+        // Then
+        assertEquals(0, new BigDecimal("9.00").compareTo(jdbcTemplate.queryForObject("SELECT total_price FROM basket", BigDecimal.class)));
+    }
+
+    @Test
+    void linesWithoutStoredPrices_shouldBeBackfilledFromCurrentSalePrice() {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        Product peony = productService.createNewProduct(aProductRequest("Peonies", "4.50", 5));
+        Product lily = productService.createNewProduct(aProductRequest("Peonies", "3.00", 5));
+        basketService.addToBasket(shopper, peony.getId(), 2);
+        basketService.addToBasket(shopper, lily.getId(), 1);
+        jdbcTemplate.update("UPDATE basket_item SET unit_price_minor = 0");
+        jdbcTemplate.update("UPDATE basket SET total_price_minor = 0");
+
+        // When
+        basketPriceBackfill.backfill();
+        basketPriceBackfill.backfill();
+
+        // Then
+        Basket basket = basketService.findUserBasket(shopper);
+        assertEquals(1200, basket.getTotalPriceMinor());
+        assertTrue(basket.getItems().stream().allMatch(item -> item.getUnitPriceMinor() > 0));
+    }
+}
@@ -0,0 +1,129 @@
+package app;
+
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.User;
+import app.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "app.basket.reservation.ttl=3s",
+        "app.basket.reservation.sweep-interval=3600000"
+})
+public class BasketReservationITest {
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryLedger.flush();
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void expiredHold_shouldBeRemovedFromBasketAndStockReturned() throws InterruptedException {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Orchids", "12.00", 6));
+        User shopper = userRepository.save(aNewUser());
+        basketService.addToBasket(shopper, product.getId(), 4);
+        assertEquals(2, inventoryLedger.available(product.getId()).getAsInt());
+
+        // When
+        Thread.sleep(3_200);
+        int released = basketService.releaseExpiredReservations();
+
+        // Then
+        assertEquals(1, released);
+        assertEquals(6, inventoryLedger.available(product.getId()).getAsInt());
+        assertTrue(basketService.findUserBasket(shopper).getItems().isEmpty());
+        assertEquals(0, basketService.findUserBasket(shopper).getTotalPriceMinor());
+    }
+
+    @Test
+    void holdThatHasNotRunOut_shouldBeKept() {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Orchids", "12.00", 6));
+        User shopper = userRepository.save(aNewUser());
+        basketService.addToBasket(shopper, product.getId(), 1);
+
+        // When
+        int released = basketService.releaseExpiredReservations();
+
+        // Then
+        assertEquals(0, released);
+        assertEquals(1, basketService.findUserBasket(shopper).getItems().size());
+        assertEquals(5, inventoryLedger.available(product.getId()).getAsInt());
+    }
+
+    @Test
+    void removalThatRollsBack_shouldKeepTheHoldScheduled() throws InterruptedException {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Orchids", "12.00", 6));
+        User shopper = userRepository.save(aNewUser());
+        basketService.addToBasket(shopper, product.getId(), 4);
+        UUID basketItemId = basketService.findUserBasket(shopper).getItems().getFirst().getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            basketService.removeBasketItem(shopper, basketItemId);
+            status.setRollbackOnly();
+        });
+
+        // When
+        Thread.sleep(3_200);
+        int released = basketService.releaseExpiredReservations();
+
+        // Then
+        assertEquals(1, released);
+        assertEquals(6, inventoryLedger.available(product.getId()).getAsInt());
+        assertTrue(basketService.findUserBasket(shopper).getItems().isEmpty());
+    }
+}
@@ -0,0 +1,206 @@
+package app;
+
+import app.basket.model.Basket;
+import app.basket.model.BasketItem;
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.exception.NotEnoughInStockException;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.User;
+import app.user.model.UserRole;
+import app.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+// Every round of racing writers commits at least one, so the four tabs below need up to four attempts;
+// twice that leaves headroom for rounds where a conflict is detected late.
+@SpringBootTest(properties = "app.basket.retry.max-attempts=8")
+public class BasketStockITest {
+
+    private static final int SHOPPERS = 8;
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentShoppers_shouldNeverOversell() throws Exception {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Peonies", "4.50", 3));
+
+        List<User> shoppers = new ArrayList<>();
+        for (int i = 0; i < SHOPPERS; i++) {
+            shoppers.add(userRepository.save(aNewUser()));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(SHOPPERS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // When
+        for (User shopper : shoppers) {
+            Callable<Boolean> checkout = () -> {
+                start.await();
+                try {
+                    basketService.addToBasket(shopper, product.getId(), 1);
+                    return true;
+                } catch (NotEnoughInStockException e) {
+                    return false;
+                }
+            };
+            results.add(executor.submit(checkout));
+        }
+
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(3, succeeded);
+        assertEquals(0, productService.getProduct("Peonies", product.getName(), UserRole.ADMIN).getCurrentQuantity());
+    }
+
+    @Test
+    void concurrentChangesToSameBasket_shouldAllBeKept() throws Exception {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        basketService.addToBasket(shopper, productService.createNewProduct(aProductRequest("Peonies", "4.50", 5)).getId(), 1);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            products.add(productService.createNewProduct(aProductRequest("Peonies", "4.50", 5)));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(products.size());
+        List<Future<?>> results = new ArrayList<>();
+
+        // When
+        for (Product product : products) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return basketService.addToBasket(shopper, product.getId(), 1);
+            }));
+        }
+
+        start.countDown();
+
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // Then
+        Basket basket = basketService.findUserBasket(shopper);
+        assertEquals(5, basket.getItems().size());
+        assertEquals(2250, basket.getTotalPriceMinor());
+    }
+
+    @Test
+    void concurrentAddsOfSameProduct_shouldMergeIntoOneLine() throws Exception {
+
+        // Given
+        User shopper = userRepository.save(aNewUser());
+        basketService.addToBasket(shopper, productService.createNewProduct(aProductRequest("Peonies", "4.50", 5)).getId(), 1);
+        Product product = productService.createNewProduct(aProductRequest("Peonies", "4.50", 10));
+
+        int tabs = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tabs);
+        List<Future<?>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < tabs; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return basketService.addToBasket(shopper, product.getId(), 1);
+            }));
+        }
+
+        start.countDown();
+
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // Then
+        Basket basket = basketService.findUserBasket(shopper);
+        assertEquals(2, basket.getItems().size());
+        assertEquals(tabs, basket.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .mapToInt(BasketItem::getQuantity)
+                .sum());
+        assertEquals(6, productService.getProduct("Peonies", product.getName(), UserRole.ADMIN).getCurrentQuantity());
+    }
+
+    @Test
+    void removingBasketItem_shouldReturnItsStock() {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Peonies", "4.50", 5));
+        User shopper = userRepository.save(aNewUser());
+        UUID basketItemId = basketService.addToBasket(shopper, product.getId(), 2).getItems().getFirst().getId();
+
+        // When
+        basketService.removeBasketItem(shopper, basketItemId);
+
+        // Then
+        assertEquals(5, productService.getProduct("Peonies", product.getName(), UserRole.ADMIN).getCurrentQuantity());
+    }
+
+}
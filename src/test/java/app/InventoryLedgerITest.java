@@ -0,0 +1,212 @@
+package app;
+
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.email.client.EmailClient;
+import app.email.service.EmailService;
+import app.inventory.repository.StockJournalRepository;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.repository.ProductRepository;
+import app.product.service.ProductService;
+import app.user.model.UserRole;
+import app.user.repository.UserRepository;
+import app.web.dto.BulkQuantityUpdateResponse;
+import app.web.dto.QuantityUpdateEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class InventoryLedgerITest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockJournalRepository stockJournalRepository;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailService emailService;
+
+    @MockitoBean
+    private EmailClient emailClient;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryLedger.flush();
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void reservations_shouldBeWrittenBehindToProductTableOnFlush() {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Lilies", "3.00", 10));
+        inventoryLedger.flush();
+
+        // When
+        basketService.addToBasket(userRepository.save(aNewUser()), product.getId(), 3);
+
+        // Then
+        assertEquals(7, inventoryLedger.available(product.getId()).getAsInt());
+        assertEquals(10, stockInDatabase(product));
+
+        inventoryLedger.flush();
+
+        assertEquals(7, stockInDatabase(product));
+        assertEquals(0, stockJournalRepository.count());
+    }
+
+    @Test
+    void ledgerRebuiltAfterRestart_shouldIncludeUnflushedReservations() {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Lilies", "3.00", 4));
+        inventoryLedger.flush();
+        basketService.addToBasket(userRepository.save(aNewUser()), product.getId(), 3);
+
+        // When
+        InventoryLedger restarted = new InventoryLedger(productRepository, stockJournalRepository, transactionTemplate, eventPublisher, new SimpleMeterRegistry());
+        restarted.load();
+
+        // Then
+        assertEquals(4, stockInDatabase(product));
+        assertEquals(1, restarted.available(product.getId()).getAsInt());
+    }
+
+    @Test
+    void adminStockLevel_shouldComposeWithPendingReservations() {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Lilies", "3.00", 5));
+        basketService.addToBasket(userRepository.save(aNewUser()), product.getId(), 2);
+
+        // When
+        productService.updateProductQuantity("Lilies", product.getName(), 20, UserRole.ADMIN);
+        inventoryLedger.flush();
+
+        // Then
+        assertEquals(20, stockInDatabase(product));
+        assertEquals(20, productService.getProduct("Lilies", product.getName(), UserRole.USER).getCurrentQuantity());
+    }
+
+    @Test
+    void restockAlert_shouldNotOverwriteStockFlushedWhileItRuns() throws Exception {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Lilies", "3.00", 4));
+        inventoryLedger.flush();
+        basketService.addToBasket(userRepository.save(aNewUser()), product.getId(), 3);
+
+        CountDownLatch alertSending = new CountDownLatch(1);
+        CountDownLatch flushed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            alertSending.countDown();
+            flushed.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(emailClient).sendRestockAlert(any());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> restockCheck = executor.submit(() -> emailService.checkProducts());
+
+        // When
+        assertTrue(alertSending.await(5, TimeUnit.SECONDS));
+        inventoryLedger.flush();
+        flushed.countDown();
+        restockCheck.get();
+        executor.shutdown();
+
+        // Then
+        assertEquals(1, stockInDatabase(product));
+        assertTrue(jdbcTemplate.queryForObject("SELECT restock_alert_sent FROM product WHERE id = ?", Boolean.class, product.getId()));
+    }
+
+    @Test
+    void bulkStockLevels_shouldJournalAllMovementsInOneBatch() {
+
+        // Given
+        List<QuantityUpdateEntry> entries = IntStream.range(0, 20)
+                .mapToObj(i -> productService.createNewProduct(aProductRequest("Lilies", "3.00", 5)))
+                .map(product -> QuantityUpdateEntry.builder().productId(product.getId()).quantity(40).build())
+                .toList();
+        inventoryLedger.flush();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        BulkQuantityUpdateResponse response = productService.updateProductQuantities(entries, UserRole.ADMIN);
+        long statements = statistics.getPrepareStatementCount();
+
+        // Then
+        assertEquals(20, response.getUpdated());
+        assertEquals(20, statistics.getEntityInsertCount());
+        assertTrue(statements < entries.size(), "journal inserts were not batched: " + statements + " statements");
+        assertEquals(20, stockJournalRepository.count());
+    }
+
+    private int stockInDatabase(Product product) {
+
+        return jdbcTemplate.queryForObject("SELECT current_quantity FROM product WHERE id = ?", Integer.class, product.getId());
+    }
+}
@@ -0,0 +1,132 @@
+package app;
+
+import app.basket.repository.BasketRepository;
+import app.basket.service.BasketService;
+import app.product.model.Product;
+import app.product.repository.ProductArchiveRepository;
+import app.product.service.ProductArchiveService;
+import app.product.service.ProductService;
+import app.user.model.UserRole;
+import app.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static app.TestBuilder.aNewUser;
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ProductArchiveITest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Autowired
+    private BasketService basketService;
+
+    @Autowired
+    private BasketRepository basketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        basketRepository.deleteAll();
+    }
+
+    @Test
+    void shouldArchiveRetiredProductsButKeepThoseStillInBaskets() {
+
+        // Given
+        Product retired = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+        Product inBasket = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+
+        basketService.addToBasket(userRepository.save(aNewUser()), inBasket.getId(), 1);
+
+        retireLongAgo(retired);
+        retireLongAgo(inBasket);
+
+        // When
+        int archived = productArchiveService.archiveInactiveProducts();
+
+        // Then
+        assertEquals(1, archived);
+        assertTrue(productArchiveRepository.existsById(retired.getId()));
+        assertFalse(productArchiveRepository.existsById(inBasket.getId()));
+        assertEquals(0, countProductRows(retired.getName()));
+        assertEquals(1, countProductRows(inBasket.getName()));
+    }
+
+    @Test
+    void shouldKeepRecentlyRetiredProductsInProductTable() {
+
+        // Given
+        Product retired = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+        productService.removeProduct(retired.getId());
+
+        // When
+        productArchiveService.archiveInactiveProducts();
+
+        // Then
+        assertFalse(productArchiveRepository.existsById(retired.getId()));
+        assertEquals(1, countProductRows(retired.getName()));
+    }
+
+    @Test
+    void shouldRestoreArchivedProductAsActive() {
+
+        // Given
+        Product retired = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+        retireLongAgo(retired);
+        productArchiveService.archiveInactiveProducts();
+
+        // When
+        productArchiveService.restoreProduct(retired.getId());
+
+        // Then
+        Product restored = productService.getProduct("Tulips", retired.getName(), UserRole.USER);
+        assertEquals(retired.getId(), restored.getId());
+        assertFalse(restored.getInactive());
+        assertFalse(productArchiveRepository.existsById(retired.getId()));
+    }
+
+    private void retireLongAgo(Product product) {
+
+        productService.removeProduct(product.getId());
+        jdbcTemplate.update("UPDATE product SET inactivated_at = ? WHERE name = ?", LocalDateTime.now().minusDays(60), product.getName());
+    }
+
+    private int countProductRows(String name) {
+
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE name = ?", Integer.class, name);
+    }
+
+}
@@ -0,0 +1,89 @@
+package app;
+
+import app.product.model.Product;
+import app.product.service.ProductExportService;
+import app.product.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ProductExportITest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+    }
+
+    @Test
+    void exportProducts_shouldWriteEveryProductIncludingInactiveAsOneJsonLine() throws Exception {
+
+        // Given
+        Product active = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+        Product retired = productService.createNewProduct(aProductRequest("Roses", "4.50", 3));
+        productService.removeProduct(retired.getId());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = productExportService.exportProducts(output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        Map<String, JsonNode> byName = new HashMap<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            byName.put(node.get("name").asText(), node);
+        }
+
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        assertFalse(byName.get(active.getName()).get("inactive").asBoolean());
+        assertTrue(byName.get(retired.getName()).get("inactive").asBoolean());
+    }
+
+    @Test
+    void exportProducts_shouldNotPutExportedProductsIntoSecondLevelCache() throws Exception {
+
+        // Given
+        Product product = productService.createNewProduct(aProductRequest("Tulips", "2.20", 10));
+        entityManagerFactory.getCache().evictAll();
+
+        // When
+        productExportService.exportProducts(new ByteArrayOutputStream());
+
+        // Then
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, product.getId()));
+    }
+}
@@ -0,0 +1,138 @@
+package app;
+
+import app.product.catalog.CatalogCursor;
+import app.product.model.Product;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import app.product.service.ProductService;
+import app.web.dto.ProductRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ProductRepositoryITest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product redRose;
+    private Product whiteRose;
+    private Product yellowRose;
+    private Product retiredRose;
+    private Product tulip;
+
+    @BeforeEach
+    public void setUp() {
+
+        clearTables(jdbcTemplate, entityManagerFactory);
+
+        redRose = aProduct("Red Rose", "Roses", 5);
+        whiteRose = aProduct("White Rose", "Roses", 0);
+        yellowRose = aProduct("Yellow Rose", "Roses", 2);
+        retiredRose = aProduct("Black Rose", "Roses", 4);
+        tulip = aProduct("Tulip", "Tulips", 9);
+
+        productService.removeProduct(retiredRose.getId());
+    }
+
+    @Test
+    void findInStockCategoryPage_shouldReturnOnlyActiveInStockProductsOfThatCategoryByName() {
+
+        // When
+        List<ProductSummary> page = productRepository.findInStockCategoryPage("Roses", CatalogCursor.FIRST_PAGE, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(redRose.getId(), yellowRose.getId()), page.stream().map(ProductSummary::id).toList());
+    }
+
+    @Test
+    void findInStockCategoryPage_shouldStartAfterCursorAndStopAtPageSize() {
+
+        // Given
+        aProduct("Amber Rose", "Roses", 1);
+
+        // When
+        List<ProductSummary> first = productRepository.findInStockCategoryPage("Roses", CatalogCursor.FIRST_PAGE, PageRequest.of(0, 2));
+        List<ProductSummary> second = productRepository.findInStockCategoryPage("Roses", first.getLast().name(), PageRequest.of(0, 2));
+
+        // Then
+        assertEquals(List.of("Amber Rose", "Red Rose"), first.stream().map(ProductSummary::name).toList());
+        assertEquals(List.of("Yellow Rose"), second.stream().map(ProductSummary::name).toList());
+    }
+
+    @Test
+    void findCategoryPage_shouldKeepSoldOutProductsButNotRetiredOnes() {
+
+        // When
+        List<ProductSummary> page = productRepository.findCategoryPage("Roses", CatalogCursor.FIRST_PAGE, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("Red Rose", "White Rose", "Yellow Rose"), page.stream().map(ProductSummary::name).toList());
+    }
+
+    @Test
+    void findInStockPage_shouldSpanCategoriesAndSkipSoldOutProducts() {
+
+        // When
+        List<ProductSummary> page = productRepository.findInStockPage(CatalogCursor.FIRST_PAGE, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("Red Rose", "Tulip", "Yellow Rose"), page.stream().map(ProductSummary::name).toList());
+    }
+
+    @Test
+    void findActiveByName_shouldFindActiveProductsOnly() {
+
+        // When & Then
+        assertEquals(tulip.getId(), productRepository.findActiveByName("Tulip").orElseThrow().getId());
+        assertEquals(whiteRose.getId(), productRepository.findActiveByName("White Rose").orElseThrow().getId());
+        assertTrue(productRepository.findActiveByName("Black Rose").isEmpty());
+        assertTrue(productRepository.findActiveByName("Blue Rose").isEmpty());
+    }
+
+    @Test
+    void findAllByNameIn_shouldSkipRetiredProductsButFindExistingNamesShouldNot() {
+
+        // Given
+        List<String> names = List.of("Red Rose", "Black Rose", "Blue Rose");
+
+        // When
+        List<Product> active = productRepository.findAllByNameIn(names);
+        List<String> existing = productRepository.findExistingNames(names);
+
+        // Then
+        assertEquals(List.of(redRose.getId()), active.stream().map(Product::getId).toList());
+        assertEquals(2, existing.size());
+        assertTrue(existing.containsAll(List.of("Red Rose", "Black Rose")));
+    }
+
+    private Product aProduct(String name, String category, int quantity) {
+
+        ProductRequest request = aProductRequest(category, "3.00", quantity);
+        request.setName(name);
+
+        return productService.createNewProduct(request);
+    }
+}
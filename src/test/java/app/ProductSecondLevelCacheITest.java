@@ -0,0 +1,86 @@
+package app;
+
+import app.exception.ResourceNotFoundException;
+import app.product.model.Product;
+import app.product.service.ProductService;
+import app.user.model.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static app.TestBuilder.aProductRequest;
+import static app.TestBuilder.clearTables;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ProductSecondLevelCacheITest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        clearTables(jdbcTemplate, entityManagerFactory);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldResolveProductByNameFromSecondLevelCacheWithoutQueries() {
+
+        // Given
+        Product created = productService.createNewProduct(aProductRequest("Roses", "4.50", 10));
+        productService.getProduct("Roses", created.getName(), UserRole.USER);
+        statistics.clear();
+
+        // When
+        Product product = productService.getProduct("Roses", created.getName(), UserRole.USER);
+
+        // Then
+        assertEquals(created.getId(), product.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void shouldNotServeRemovedProductFromCache() {
+
+        // Given
+        Product created = productService.createNewProduct(aProductRequest("Roses", "4.50", 10));
+        productService.getProduct("Roses", created.getName(), UserRole.USER);
+
+        // When
+        productService.removeProduct(created.getId());
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> productService.getProduct("Roses", created.getName(), UserRole.ADMIN));
+    }
+
+    @Test
+    void shouldSeeStockUpdateThroughCache() {
+
+        // Given
+        Product created = productService.createNewProduct(aProductRequest("Roses", "4.50", 10));
+        productService.getProduct("Roses", created.getName(), UserRole.USER);
+
+        // When
+        productService.updateProductQuantity("Roses", created.getName(), 42, UserRole.ADMIN);
+
+        // Then
+        assertEquals(42, productService.getProduct("Roses", created.getName(), UserRole.USER).getCurrentQuantity());
+    }
+}
@@ -5,7 +5,11 @@ import app.basket.model.BasketItem;
 import app.product.model.Product;
 import app.user.model.User;
 import app.user.model.UserRole;
+import app.web.dto.ProductRequest;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.jdbc.JdbcTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,7 +33,7 @@ public class TestBuilder {
             Basket basket = Basket.builder()
                     .id(UUID.randomUUID())
                     .user(user)
-                    .totalPrice(BigDecimal.ONE)
+                    .totalPriceMinor(100)
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
                     .build();
@@ -57,4 +61,36 @@ public class TestBuilder {
             product.setName(product.getName());
             return user;
         }
+
+        // An unsaved shopper with a unique email, so integration tests can create as many as they need.
+        public static User aNewUser() {
+
+            return User.builder()
+                    .firstName("FirstName")
+                    .lastName("LastName")
+                    .email(UUID.randomUUID() + "@example.com")
+                    .password("password123")
+                    .role(UserRole.USER)
+                    .build();
+        }
+
+        public static ProductRequest aProductRequest(String category, String salePrice, int quantity) {
+
+            return ProductRequest.builder()
+                    .name(category + " " + UUID.randomUUID())
+                    .description(category + " from the test catalog")
+                    .salePrice(new BigDecimal(salePrice))
+                    .quantity(quantity)
+                    .image("flower.png")
+                    .category(category)
+                    .build();
+        }
+
+        // Integration tests share one in-memory database; child tables go first so foreign keys never block the delete.
+        // Rows removed behind Hibernate's back must not linger in the second-level cache either.
+        public static void clearTables(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+
+            JdbcTestUtils.deleteFromTables(jdbcTemplate, "basket_item", "basket", "stock_journal", "product_archive", "product", "`user`");
+            entityManagerFactory.getCache().evictAll();
+        }
 }
@@ -0,0 +1,473 @@
+package app.basket;
+
+import app.basket.model.Basket;
+import app.basket.model.BasketItem;
+import app.basket.repository.BasketItemRepository;
+import app.basket.repository.BasketRepository;
+import app.basket.reservation.BasketReservations;
+import app.basket.service.BasketService;
+import app.basket.service.OptimisticLockRetry;
+import app.event.ProductChangedEvent;
+import app.exception.InvalidBasketOperationException;
+import app.exception.NotEnoughInStockException;
+import app.exception.ResourceNotFoundException;
+import app.product.model.Money;
+import app.product.model.Product;
+import app.inventory.service.InventoryLedger;
+import app.product.repository.ProductRepository;
+import app.user.model.User;
+import app.web.dto.BasketOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BasketServiceUTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private BasketRepository basketRepository;
+    @Mock
+    private BasketItemRepository basketItemRepository;
+    @Mock
+    private InventoryLedger inventoryLedger;
+    @Mock
+    private BasketReservations basketReservations;
+    @Mock
+    private OptimisticLockRetry optimisticLockRetry;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BasketService basketService;
+
+    @BeforeEach
+    void setUp() {
+        when(optimisticLockRetry.execute(anyString(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    void whenAddToBasketAndLedgerRejectsReservation_thenNotEnoughInStockIsThrown() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(2);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryLedger.reserve(product.getId(), 3)).thenThrow(new NotEnoughInStockException("Not enough stock available."));
+
+        // When & Then
+        assertThrows(NotEnoughInStockException.class, () -> basketService.addToBasket(user, product.getId(), 3));
+        verify(basketRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenAddToBasketAndStockIsTaken_thenItemIsAddedAndChangeIsPublished() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryLedger.reserve(product.getId(), 2)).thenReturn(3);
+        when(basketRepository.findByUser(user)).thenReturn(Optional.of(basket));
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketRepository.save(basket)).thenReturn(basket);
+
+        // When
+        Basket result = basketService.addToBasket(user, product.getId(), 2);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(2, result.getItems().getFirst().getQuantity());
+        assertEquals(2000, result.getTotalPriceMinor());
+        assertEquals(1000, result.getItems().getFirst().getUnitPriceMinor());
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, product).withCurrentQuantity(3));
+    }
+
+    @Test
+    void whenBasketItemQuantityIsLowered_thenDifferenceIsReturnedToStock() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+        BasketItem basketItem = aBasketItem(basket, product, 4);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findById(basketItem.getId())).thenReturn(Optional.of(basketItem));
+        when(inventoryLedger.release(product.getId(), 3)).thenReturn(OptionalInt.of(8));
+        when(basketRepository.save(basket)).thenReturn(basket);
+
+        // When
+        basketService.updateBasketItemQuantity(user, basketItem.getId(), 1);
+
+        // Then
+        verify(inventoryLedger).release(product.getId(), 3);
+        verify(inventoryLedger, never()).reserve(any(), anyInt());
+        assertEquals(1, basketItem.getQuantity());
+        assertEquals(1000, basket.getTotalPriceMinor());
+    }
+
+    @Test
+    void whenBasketItemQuantityIsRaisedBeyondStock_thenNotEnoughInStockIsThrown() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(1);
+        Basket basket = aBasket(user);
+        BasketItem basketItem = aBasketItem(basket, product, 1);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findById(basketItem.getId())).thenReturn(Optional.of(basketItem));
+        when(inventoryLedger.reserve(product.getId(), 4)).thenThrow(new NotEnoughInStockException("Not enough stock available."));
+
+        // When & Then
+        assertThrows(NotEnoughInStockException.class, () -> basketService.updateBasketItemQuantity(user, basketItem.getId(), 5));
+        assertEquals(1, basketItem.getQuantity());
+    }
+
+    @Test
+    void whenAddToBasketAndProductIsAlreadyInBasket_thenItsLineIsMerged() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+        aBasketItem(basket, aProduct(5), 1);
+        BasketItem existing = aBasketItem(basket, product, 1);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryLedger.reserve(product.getId(), 2)).thenReturn(3);
+        when(basketRepository.findByUser(user)).thenReturn(Optional.of(basket));
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findByBasketIdAndProductId(basket.getId(), product.getId())).thenReturn(Optional.of(existing));
+        when(basketRepository.save(basket)).thenReturn(basket);
+
+        // When
+        Basket result = basketService.addToBasket(user, product.getId(), 2);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertEquals(3, existing.getQuantity());
+        assertEquals(4000, result.getTotalPriceMinor());
+        verify(basketItemRepository, never()).save(any());
+    }
+
+    @Test
+    void whenAddToBasketWouldPushMergedLineOverLimit_thenItIsRejected() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+        BasketItem existing = aBasketItem(basket, product, BasketService.MAX_LINE_QUANTITY);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryLedger.reserve(product.getId(), 1)).thenReturn(4);
+        when(basketRepository.findByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findByBasketIdAndProductId(basket.getId(), product.getId())).thenReturn(Optional.of(existing));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.addToBasket(user, product.getId(), 1));
+        assertEquals(BasketService.MAX_LINE_QUANTITY, existing.getQuantity());
+        verify(basketRepository, never()).save(any());
+    }
+
+    @Test
+    void whenAddToBasketQuantityIsHuge_thenNoStockIsTaken() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.addToBasket(user, product.getId(), Integer.MAX_VALUE));
+        verify(inventoryLedger, never()).reserve(any(), anyInt());
+    }
+
+    @Test
+    void whenProductHasNoSalePrice_thenItIsNotAddedForFree() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        product.setSalePrice(null);
+        Basket basket = aBasket(user);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryLedger.reserve(product.getId(), 1)).thenReturn(4);
+        when(basketRepository.findByUser(user)).thenReturn(Optional.of(basket));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.addToBasket(user, product.getId(), 1));
+        assertTrue(basket.getItems().isEmpty());
+        assertEquals(0, basket.getTotalPriceMinor());
+        verify(basketItemRepository, never()).save(any());
+    }
+
+    @Test
+    void whenBasketItemBelongsToAnotherBasket_thenItIsNotFound() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Basket basket = aBasket(user);
+        Basket otherBasket = aBasket(User.builder().id(UUID.randomUUID()).build());
+        BasketItem foreignItem = aBasketItem(otherBasket, aProduct(5), 2);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findById(foreignItem.getId())).thenReturn(Optional.of(foreignItem));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> basketService.removeBasketItem(user, foreignItem.getId()));
+        verify(inventoryLedger, never()).release(any(), anyInt());
+        assertEquals(2000, otherBasket.getTotalPriceMinor());
+    }
+
+    @Test
+    void whenBasketItemIsRemoved_thenItsQuantityIsReturnedToStock() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+        BasketItem basketItem = aBasketItem(basket, product, 2);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(basketItemRepository.findById(basketItem.getId())).thenReturn(Optional.of(basketItem));
+        when(inventoryLedger.release(product.getId(), 2)).thenReturn(OptionalInt.of(7));
+        when(basketRepository.save(basket)).thenReturn(basket);
+
+        // When
+        Basket result = basketService.removeBasketItem(user, basketItem.getId());
+
+        // Then
+        verify(inventoryLedger).release(product.getId(), 2);
+        verify(basketItemRepository).delete(basketItem);
+        assertTrue(result.getItems().isEmpty());
+        assertEquals(0, result.getTotalPriceMinor());
+    }
+
+    @Test
+    void whenReservationHasExpired_thenLineIsRemovedAndStockReturned() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+        Basket basket = aBasket(user);
+        BasketItem expired = aBasketItem(basket, product, 2);
+        expired.setReservedUntil(LocalDateTime.now().minusMinutes(1));
+        BasketItem kept = aBasketItem(basket, aProduct(5), 1);
+
+        when(basketReservations.due()).thenReturn(List.of(expired.getId()));
+        when(basketReservations.now()).thenReturn(LocalDateTime.now());
+        when(basketItemRepository.findAllWithBasketByIdIn(List.of(expired.getId()))).thenReturn(List.of(expired));
+        when(inventoryLedger.release(product.getId(), 2)).thenReturn(OptionalInt.of(7));
+
+        // When
+        int released = basketService.releaseExpiredReservations();
+
+        // Then
+        assertEquals(1, released);
+        assertEquals(List.of(kept), basket.getItems());
+        assertEquals(1000, basket.getTotalPriceMinor());
+        verify(basketReservations).reclaimed(1, 2);
+    }
+
+    @Test
+    void whenReservationWasExtended_thenLineIsKeptAndRescheduled() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Basket basket = aBasket(user);
+        BasketItem extended = aBasketItem(basket, aProduct(5), 2);
+        extended.setReservedUntil(LocalDateTime.now().plusMinutes(10));
+
+        when(basketReservations.due()).thenReturn(List.of(extended.getId()));
+        when(basketReservations.now()).thenReturn(LocalDateTime.now());
+        when(basketItemRepository.findAllWithBasketByIdIn(List.of(extended.getId()))).thenReturn(List.of(extended));
+
+        // When
+        int released = basketService.releaseExpiredReservations();
+
+        // Then
+        assertEquals(0, released);
+        assertEquals(1, basket.getItems().size());
+        verify(basketReservations).hold(extended.getId(), extended.getReservedUntil());
+        verify(inventoryLedger, never()).release(any(), anyInt());
+    }
+
+    @Test
+    void whenOperationsAreApplied_thenEachProductMovesStockOnceByItsNetChange() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Basket basket = aBasket(user);
+        Product kept = aProduct(5);
+        BasketItem keptLine = aBasketItem(basket, kept, 2);
+        Product added = aProduct(5);
+        Product addedAndRemoved = aProduct(5);
+
+        List<BasketOperation> operations = List.of(
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(added.getId()).quantity(1).build(),
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(added.getId()).quantity(2).build(),
+                BasketOperation.builder().type(BasketOperation.Type.SET_QUANTITY).basketItemId(keptLine.getId()).quantity(1).build(),
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(addedAndRemoved.getId()).quantity(1).build(),
+                BasketOperation.builder().type(BasketOperation.Type.REMOVE).productId(addedAndRemoved.getId()).build());
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(productRepository.findAllById(any())).thenReturn(List.of(added, addedAndRemoved));
+        when(inventoryLedger.reserve(added.getId(), 3)).thenReturn(2);
+        when(inventoryLedger.release(kept.getId(), 1)).thenReturn(OptionalInt.of(4));
+        when(basketRepository.save(basket)).thenReturn(basket);
+
+        // When
+        Basket result = basketService.applyOperations(user, operations);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertEquals(1, keptLine.getQuantity());
+        assertEquals(3, result.getItems().get(1).getQuantity());
+        assertEquals(4000, result.getTotalPriceMinor());
+        verify(inventoryLedger).reserve(added.getId(), 3);
+        verify(inventoryLedger).release(kept.getId(), 1);
+        verify(inventoryLedger, never()).reserve(eq(addedAndRemoved.getId()), anyInt());
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void whenOperationNamesUnknownBasketItem_thenNoStockIsMoved() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Basket basket = aBasket(user);
+        Product product = aProduct(5);
+
+        List<BasketOperation> operations = List.of(
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(product.getId()).quantity(1).build(),
+                BasketOperation.builder().type(BasketOperation.Type.REMOVE).basketItemId(UUID.randomUUID()).build());
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(basket));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> basketService.applyOperations(user, operations));
+        verify(inventoryLedger, never()).reserve(any(), anyInt());
+        verify(basketRepository, never()).save(any());
+    }
+
+    @Test
+    void whenOperationQuantityIsNotPositive_thenBatchIsRejected() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(aBasket(user)));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.applyOperations(user,
+                List.of(BasketOperation.builder().type(BasketOperation.Type.ADD).productId(product.getId()).quantity(0).build())));
+        verify(inventoryLedger, never()).reserve(any(), anyInt());
+    }
+
+    @Test
+    void whenFoldedQuantityWouldOverflow_thenBatchIsRejectedWithoutMovingStock() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(aBasket(user)));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.applyOperations(user, List.of(
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(product.getId()).quantity(BasketService.MAX_LINE_QUANTITY).build(),
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(product.getId()).quantity(2).build())));
+        verify(inventoryLedger, never()).reserve(any(), anyInt());
+        verify(inventoryLedger, never()).release(any(), anyInt());
+    }
+
+    @Test
+    void whenOperationQuantityIsHuge_thenBatchIsRejected() {
+
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).build();
+        Product product = aProduct(5);
+
+        when(basketRepository.findWithItemsByUser(user)).thenReturn(Optional.of(aBasket(user)));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // When & Then
+        assertThrows(InvalidBasketOperationException.class, () -> basketService.applyOperations(user, List.of(
+                BasketOperation.builder().type(BasketOperation.Type.ADD).productId(product.getId()).quantity(Integer.MAX_VALUE).build())));
+        verify(inventoryLedger, never()).release(any(), anyInt());
+    }
+
+    private static Product aProduct(int currentQuantity) {
+
+        return Product.builder()
+                .id(UUID.randomUUID())
+                .name("Rose")
+                .salePrice(BigDecimal.TEN)
+                .currentQuantity(currentQuantity)
+                .category("Roses")
+                .inactive(false)
+                .build();
+    }
+
+    private static Basket aBasket(User user) {
+
+        return Basket.builder()
+                .id(UUID.randomUUID())
+                .user(user)
+                .items(new ArrayList<>())
+                .totalPriceMinor(0)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static BasketItem aBasketItem(Basket basket, Product product, int quantity) {
+
+        BasketItem basketItem = BasketItem.builder()
+                .id(UUID.randomUUID())
+                .basket(basket)
+                .product(product)
+                .quantity(quantity)
+                .unitPriceMinor(Money.toMinor(product.getSalePrice()))
+                .build();
+
+        basket.getItems().add(basketItem);
+        basket.setTotalPriceMinor(basket.getTotalPriceMinor() + basketItem.getUnitPriceMinor() * quantity);
+
+        return basketItem;
+    }
+}
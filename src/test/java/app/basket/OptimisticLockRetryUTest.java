@@ -0,0 +1,142 @@
+package app.basket;
+
+import app.basket.service.OptimisticLockRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OptimisticLockRetryUTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @BeforeEach
+    void setUp() {
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(transactionTemplate, meterRegistry, 3, Duration.ZERO);
+    }
+
+    @Test
+    void whenConflictIsTransient_thenWorkIsRetriedUntilItCommits() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = optimisticLockRetry.execute("addToBasket", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Basket", "id");
+            }
+            return "done";
+        });
+
+        // Then
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.counter("basket.optimistic.retries", "operation", "addToBasket").count());
+        assertEquals(0, meterRegistry.counter("basket.optimistic.conflicts", "operation", "addToBasket").count());
+    }
+
+    @Test
+    void whenConcurrentInsertHitsUniqueKey_thenWorkIsRetried() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = optimisticLockRetry.execute("addToBasket", () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw violationOf("UK_BASKET_ITEM_BASKET_PRODUCT_INDEX_8");
+            }
+            return "merged";
+        });
+
+        // Then
+        assertEquals("merged", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter("basket.optimistic.retries", "operation", "addToBasket").count());
+    }
+
+    @Test
+    void whenOtherIntegrityConstraintIsViolated_thenItIsRethrownWithoutRetry() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> optimisticLockRetry.execute("addToBasket", () -> {
+            attempts.incrementAndGet();
+            throw violationOf("fk_basket_item_product");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.counter("basket.optimistic.retries", "operation", "addToBasket").count());
+        assertEquals(0, meterRegistry.counter("basket.optimistic.conflicts", "operation", "addToBasket").count());
+    }
+
+    @Test
+    void whenViolationHasNoConstraintName_thenItIsRethrownWithoutRetry() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> optimisticLockRetry.execute("addToBasket", () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("NULL not allowed for column \"QUANTITY\"");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void whenConflictPersists_thenItIsRethrownAfterMaxAttempts() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticLockRetry.execute("removeBasketItem", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Basket", "id");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(1, meterRegistry.counter("basket.optimistic.conflicts", "operation", "removeBasketItem").count());
+    }
+
+    @Test
+    void whenWorkFailsForAnotherReason_thenItIsNotRetried() {
+
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> optimisticLockRetry.execute("addToBasket", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad quantity");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    private static DataIntegrityViolationException violationOf(String constraintName) {
+
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violation"), constraintName));
+    }
+}
@@ -0,0 +1,105 @@
+package app.basket;
+
+import app.basket.reservation.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelUTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void timerShouldFireOnItsDeadlineAndNotBefore() {
+
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 0);
+        wheel.schedule("line", 5 * TICK);
+
+        // When & Then
+        assertTrue(wheel.advance(4 * TICK).isEmpty());
+        assertEquals(List.of("line"), wheel.advance(5 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void reschedulingShouldReplaceTheEarlierDeadline() {
+
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 0);
+        wheel.schedule("line", 5 * TICK);
+
+        // When
+        wheel.schedule("line", 90 * TICK);
+
+        // Then
+        assertTrue(wheel.advance(89 * TICK).isEmpty());
+        assertEquals(List.of("line"), wheel.advance(90 * TICK));
+    }
+
+    @Test
+    void cancelledTimerShouldNeverFire() {
+
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 0);
+        wheel.schedule("line", 5 * TICK);
+
+        // When
+        wheel.cancel("line");
+
+        // Then
+        assertTrue(wheel.advance(10 * TICK).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineShouldFireOnNextTick() {
+
+        // Given
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, 100 * TICK);
+
+        // When
+        wheel.schedule("line", 3 * TICK);
+
+        // Then
+        assertEquals(List.of("line"), wheel.advance(101 * TICK));
+    }
+
+    @Test
+    void timersOnEveryLevelShouldFireExactlyOnTheirTick() {
+
+        // Given
+        Random random = new Random(7);
+        TimerWheel<Integer> wheel = new TimerWheel<>(TICK, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+
+        for (int key = 0; key < 2_000; key++) {
+            long deadlineTick = 1 + random.nextInt(key % 2 == 0 ? 5_000 : 400_000);
+            deadlines.put(key, deadlineTick);
+            wheel.schedule(key, deadlineTick * TICK);
+        }
+
+        // When
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long tick = 0;
+        while (firedAt.size() < deadlines.size()) {
+            tick += 1 + random.nextInt(3);
+            for (Integer key : new ArrayList<>(wheel.advance(tick * TICK))) {
+                firedAt.put(key, tick);
+            }
+        }
+
+        // Then
+        deadlines.forEach((key, deadlineTick) -> {
+            long fired = firedAt.get(key);
+            assertTrue(fired >= deadlineTick, "fired early: " + key);
+            assertTrue(fired - deadlineTick < 3, "fired late: " + key);
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package app.image;
+
+import app.image.model.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeUTest {
+
+    @Test
+    void givenNoRangeHeader_whenParse_thenReturnsWholeFile() {
+
+        assertEquals(new ByteRange(0, 99, false), ByteRange.parse(null, 100));
+    }
+
+    @Test
+    void givenBoundedRange_whenParse_thenEndIsClampedToFileSize() {
+
+        assertEquals(new ByteRange(10, 19, true), ByteRange.parse("bytes=10-19", 100));
+        assertEquals(new ByteRange(90, 99, true), ByteRange.parse("bytes=90-500", 100));
+    }
+
+    @Test
+    void givenOpenEndedAndSuffixRanges_whenParse_thenResolvesAgainstFileSize() {
+
+        assertEquals(new ByteRange(50, 99, true), ByteRange.parse("bytes=50-", 100));
+        assertEquals(new ByteRange(80, 99, true), ByteRange.parse("bytes=-20", 100));
+    }
+
+    @Test
+    void givenRangeStartingPastEnd_whenParse_thenReturnsNull() {
+
+        assertNull(ByteRange.parse("bytes=100-", 100));
+    }
+
+    @Test
+    void givenMultipleRanges_whenParse_thenFallsBackToWholeFile() {
+
+        assertEquals(new ByteRange(0, 99, false), ByteRange.parse("bytes=0-1,5-6", 100));
+    }
+}
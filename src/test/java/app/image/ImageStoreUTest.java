@@ -0,0 +1,76 @@
+package app.image;
+
+import app.exception.InvalidImageException;
+import app.image.model.ImageType;
+import app.image.model.StoredImage;
+import app.image.service.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageStoreUTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+
+    @TempDir
+    Path root;
+
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(root);
+    }
+
+    @Test
+    void givenSameContentTwice_whenStore_thenBothUploadsShareOneFile() throws Exception {
+
+        String first = imageStore.store(new ByteArrayInputStream(PNG));
+        String second = imageStore.store(new ByteArrayInputStream(PNG));
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+        assertTrue(imageStore.exists(first));
+
+        try (var files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void givenStoredImage_whenFind_thenReturnsPathSizeAndDetectedType() throws Exception {
+
+        String hash = imageStore.store(new ByteArrayInputStream(PNG));
+
+        Optional<StoredImage> image = imageStore.find(hash);
+
+        assertTrue(image.isPresent());
+        assertEquals(PNG.length, image.get().size());
+        assertEquals(ImageType.PNG, image.get().type());
+        assertArrayEquals(PNG, Files.readAllBytes(image.get().path()));
+    }
+
+    @Test
+    void givenNonImageContent_whenStore_thenThrowsAndLeavesNothingBehind() throws Exception {
+
+        assertThrows(InvalidImageException.class, () -> imageStore.store(new ByteArrayInputStream("<html></html>".getBytes())));
+
+        try (var files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void givenPathTraversalHash_whenFind_thenReturnsEmpty() throws Exception {
+
+        assertTrue(imageStore.find("../../etc/passwd").isEmpty());
+        assertFalse(imageStore.exists("../../etc/passwd"));
+    }
+}
@@ -0,0 +1,131 @@
+package app.image;
+
+import app.event.ProductChangedEvent;
+import app.image.model.ImageVariant;
+import app.image.model.StoredImage;
+import app.image.service.ImageStore;
+import app.image.service.ImageVariantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageVariantServiceUTest {
+
+    @TempDir
+    Path root;
+
+    private ImageStore imageStore;
+    private ImageVariantService imageVariantService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(root);
+        meterRegistry = new SimpleMeterRegistry();
+        imageVariantService = new ImageVariantService(imageStore, meterRegistry, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void givenCreatedProductWithImage_whenOnProductChanged_thenAllVariantsAreGeneratedAndNeverUpscaled() throws Exception {
+
+        // Given
+        String hash = storeJpeg(2000, 1000);
+
+        // When
+        imageVariantService.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, UUID.randomUUID(), "Red Rose", null, "Roses", null, null, hash, 1));
+        imageVariantService.submit(hash).get(10, TimeUnit.SECONDS);
+
+        // Then
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertTrue(imageStore.hasVariant(hash, variant), "variant " + variant + " was not generated");
+        }
+
+        BufferedImage thumbnail = ImageIO.read(imageStore.findVariant(hash, ImageVariant.THUMBNAIL).orElseThrow().path().toFile());
+        assertEquals(ImageVariant.THUMBNAIL.getWidth(), thumbnail.getWidth());
+        assertEquals(ImageVariant.THUMBNAIL.getWidth() / 2, thumbnail.getHeight());
+
+        BufferedImage retina = ImageIO.read(imageStore.findVariant(hash, ImageVariant.RETINA).orElseThrow().path().toFile());
+        assertEquals(ImageVariant.RETINA.getWidth(), retina.getWidth());
+    }
+
+    @Test
+    void givenSmallImage_whenVariantsGenerated_thenLargerVariantsKeepOriginalWidth() throws Exception {
+
+        // Given
+        String hash = storeJpeg(300, 300);
+
+        // When
+        imageVariantService.submit(hash).get(10, TimeUnit.SECONDS);
+
+        // Then
+        StoredImage retina = imageStore.findVariant(hash, ImageVariant.RETINA).orElseThrow();
+        assertEquals(300, ImageIO.read(retina.path().toFile()).getWidth());
+    }
+
+    @Test
+    void givenImageWithoutDecoder_whenVariantIsReadAgain_thenGenerationIsNotResubmitted() throws Exception {
+
+        // Given
+        String hash = imageStore.store(new ByteArrayInputStream(webpHeaderWithGarbage()));
+        imageVariantService.submit(hash).get(10, TimeUnit.SECONDS);
+
+        // When
+        boolean requestedAgain = imageVariantService.requestVariants(hash);
+
+        // Then
+        assertFalse(requestedAgain);
+        assertEquals(1, meterRegistry.counter("images.variants.unsupported").count());
+        assertFalse(imageStore.hasVariant(hash, ImageVariant.THUMBNAIL));
+    }
+
+    @Test
+    void givenImageNeverAttempted_whenVariantIsRead_thenGenerationIsRequestedOnce() throws Exception {
+
+        // Given
+        String hash = storeJpeg(400, 200);
+
+        // When
+        boolean requested = imageVariantService.requestVariants(hash);
+        imageVariantService.submit(hash).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(requested);
+        assertTrue(imageStore.hasVariant(hash, ImageVariant.THUMBNAIL));
+    }
+
+    private String storeJpeg(int width, int height) throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+
+        return imageStore.store(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static byte[] webpHeaderWithGarbage() {
+
+        byte[] content = new byte[64];
+        System.arraycopy("RIFF".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 4);
+        System.arraycopy("WEBP".getBytes(StandardCharsets.US_ASCII), 0, content, 8, 4);
+
+        return content;
+    }
+}
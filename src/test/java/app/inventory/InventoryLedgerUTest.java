@@ -0,0 +1,246 @@
+package app.inventory;
+
+import app.exception.InvalidQuantityException;
+import app.exception.NotEnoughInStockException;
+import app.inventory.model.StockDelta;
+import app.inventory.model.StockJournalEntry;
+import app.inventory.repository.StockJournalRepository;
+import app.inventory.service.InventoryLedger;
+import app.product.model.Product;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class InventoryLedgerUTest {
+
+    private ProductRepository productRepository;
+    private StockJournalRepository stockJournalRepository;
+    private InventoryLedger inventoryLedger;
+
+    @BeforeEach
+    void setUp() {
+
+        productRepository = mock(ProductRepository.class);
+        stockJournalRepository = mock(StockJournalRepository.class);
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        inventoryLedger = new InventoryLedger(productRepository, stockJournalRepository, transactionTemplate,
+                mock(ApplicationEventPublisher.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void load_shouldAddUnflushedJournalToProductStock() {
+
+        // Given
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findAllSummaries()).thenReturn(List.of(aSummary(productId, 10)));
+        when(stockJournalRepository.sumPendingDeltas()).thenReturn(List.of(new StockDelta(productId, -4)));
+
+        // When
+        inventoryLedger.load();
+
+        // Then
+        assertEquals(6, inventoryLedger.available(productId).getAsInt());
+    }
+
+    @Test
+    void reserve_shouldTakeStockAndJournalTheMovement() {
+
+        // Given
+        UUID productId = trackedProduct(5);
+
+        // When
+        int remaining = inventoryLedger.reserve(productId, 2);
+
+        // Then
+        assertEquals(3, remaining);
+        assertEquals(3, inventoryLedger.available(productId).getAsInt());
+
+        ArgumentCaptor<StockJournalEntry> entry = ArgumentCaptor.forClass(StockJournalEntry.class);
+        verify(stockJournalRepository).save(entry.capture());
+        assertEquals(productId, entry.getValue().getProductId());
+        assertEquals(-2, entry.getValue().getDelta());
+    }
+
+    @Test
+    void reserve_whenNotEnoughStock_shouldRejectWithoutJournaling() {
+
+        // Given
+        UUID productId = trackedProduct(1);
+
+        // When & Then
+        assertThrows(NotEnoughInStockException.class, () -> inventoryLedger.reserve(productId, 2));
+        assertEquals(1, inventoryLedger.available(productId).getAsInt());
+        verify(stockJournalRepository, never()).save(any());
+    }
+
+    @Test
+    void reserve_whenTransactionRollsBack_shouldGiveStockBack() {
+
+        // Given
+        UUID productId = trackedProduct(5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            inventoryLedger.reserve(productId, 4);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            assertEquals(5, inventoryLedger.available(productId).getAsInt());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void set_shouldJournalTheDifferenceToTheCurrentLevel() {
+
+        // Given
+        UUID productId = trackedProduct(5);
+        inventoryLedger.reserve(productId, 2);
+
+        // When
+        inventoryLedger.set(productId, 10);
+
+        // Then
+        assertEquals(10, inventoryLedger.available(productId).getAsInt());
+
+        ArgumentCaptor<StockJournalEntry> entries = ArgumentCaptor.forClass(StockJournalEntry.class);
+        verify(stockJournalRepository, times(2)).save(entries.capture());
+        assertEquals(7, entries.getAllValues().get(1).getDelta());
+    }
+
+    @Test
+    void flush_shouldApplyNetDeltaPerProductAndDeleteAppliedRows() {
+
+        // Given
+        UUID productId = UUID.randomUUID();
+        List<StockJournalEntry> journal = List.of(
+                aJournalEntry(1L, productId, -2),
+                aJournalEntry(2L, productId, -1),
+                aJournalEntry(3L, productId, 5));
+        Product product = aProduct(productId, 10);
+        when(stockJournalRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(journal);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // When
+        int flushed = inventoryLedger.flush();
+
+        // Then
+        assertEquals(3, flushed);
+        assertEquals(12, product.getCurrentQuantity());
+        verify(productRepository, never()).adjustStock(any(), anyInt());
+        verify(stockJournalRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void flush_whenProductIsRetired_shouldApplyDeltaToItsRowDirectly() {
+
+        // Given
+        UUID productId = UUID.randomUUID();
+        when(stockJournalRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(aJournalEntry(1L, productId, 3)));
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        // When
+        inventoryLedger.flush();
+
+        // Then
+        verify(productRepository).adjustStock(productId, 3);
+    }
+
+    @Test
+    void flush_whenProductChangedConcurrently_shouldKeepJournalForNextFlush() {
+
+        // Given
+        UUID productId = UUID.randomUUID();
+        when(stockJournalRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(aJournalEntry(1L, productId, 3)));
+        when(productRepository.findAllById(any())).thenThrow(new ObjectOptimisticLockingFailureException(Product.class, productId));
+
+        // When
+        int flushed = inventoryLedger.flush();
+
+        // Then
+        assertEquals(0, flushed);
+        verify(stockJournalRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void nonPositiveMovements_shouldBeRejectedWithoutTouchingStock() {
+
+        // Given
+        UUID productId = trackedProduct(5);
+
+        // When & Then
+        assertThrows(InvalidQuantityException.class, () -> inventoryLedger.reserve(productId, -5));
+        assertThrows(InvalidQuantityException.class, () -> inventoryLedger.reserve(productId, 0));
+        assertThrows(InvalidQuantityException.class, () -> inventoryLedger.release(productId, -1));
+        assertThrows(InvalidQuantityException.class, () -> inventoryLedger.set(productId, -1));
+        assertEquals(5, inventoryLedger.available(productId).getAsInt());
+        verify(stockJournalRepository, never()).save(any());
+    }
+
+    private UUID trackedProduct(int currentQuantity) {
+
+        Product product = aProduct(UUID.randomUUID(), currentQuantity);
+
+        when(productRepository.findActiveById(product.getId())).thenReturn(Optional.of(product));
+
+        return product.getId();
+    }
+
+    private static Product aProduct(UUID id, int currentQuantity) {
+
+        return Product.builder()
+                .id(id)
+                .name("Tulip")
+                .salePrice(BigDecimal.ONE)
+                .currentQuantity(currentQuantity)
+                .category("Tulips")
+                .inactive(false)
+                .build();
+    }
+
+    private static ProductSummary aSummary(UUID id, int currentQuantity) {
+
+        return new ProductSummary(id, "Tulip", BigDecimal.ONE, null, null, "Tulips", currentQuantity);
+    }
+
+    private static StockJournalEntry aJournalEntry(Long id, UUID productId, int delta) {
+
+        return StockJournalEntry.builder()
+                .id(id)
+                .productId(productId)
+                .delta(delta)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package app.product;
+
+import app.event.ProductChangedEvent;
+import app.product.catalog.CatalogCursor;
+import app.product.catalog.CatalogSnapshot;
+import app.product.catalog.CatalogSnapshotHolder;
+import app.product.catalog.CatalogSort;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogSnapshotHolderUTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final ProductSummary rose = new ProductSummary(UUID.randomUUID(), "Red Rose", new BigDecimal("4.50"), "rose.png", null, "Roses", 5);
+    private final ProductSummary tulip = new ProductSummary(UUID.randomUUID(), "Tulip", new BigDecimal("1.20"), "tulip.png", null, "Tulips", 2);
+
+    private CatalogSnapshotHolder holder;
+
+    @BeforeEach
+    void setUp() {
+
+        when(productRepository.findAllSummaries()).thenReturn(List.of(rose, tulip));
+
+        holder = new CatalogSnapshotHolder(productRepository);
+        holder.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        holder.shutdown();
+    }
+
+    @Test
+    void whenStockChanges_thenStockOrderIsUpToDateWithoutRebuild() {
+
+        // When
+        holder.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, tulip.id(), tulip.name(), null,
+                tulip.category(), tulip.salePrice(), tulip.image(), null, 9));
+
+        // Then
+        assertEquals(tulip.id(), firstByStock(holder.current()).id());
+    }
+
+    @Test
+    void whenProductIsCreated_thenItAppearsAfterBackgroundRebuild() throws Exception {
+
+        // Given
+        UUID lilyId = UUID.randomUUID();
+
+        // When
+        holder.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, lilyId, "Lily", null,
+                "Lilies", BigDecimal.ONE, "lily.png", null, 1));
+
+        // Then
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (holder.current().size() != 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, holder.current().size());
+    }
+
+    private static ProductSummary firstByStock(CatalogSnapshot snapshot) {
+
+        return snapshot.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.STOCK_DESC, CatalogCursor.FIRST_PAGE, 1).items().getFirst();
+    }
+}
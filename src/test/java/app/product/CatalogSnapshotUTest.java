@@ -0,0 +1,136 @@
+package app.product;
+
+import app.exception.InvalidCatalogQueryException;
+import app.product.catalog.CatalogCursor;
+import app.product.catalog.CatalogPage;
+import app.product.catalog.CatalogSnapshot;
+import app.product.catalog.CatalogSort;
+import app.product.model.ProductSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotUTest {
+
+    private final ProductSummary redRose = product("Red Rose", "4.50", "Roses", 5);
+    private final ProductSummary whiteRose = product("White Rose", "3.00", "Roses", 0);
+    private final ProductSummary tulip = product("Tulip", "1.20", "Tulips", 9);
+    private final ProductSummary orchid = product("Orchid", "12.00", "Orchids", 2);
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(redRose, whiteRose, tulip, orchid));
+
+    @Test
+    void givenPriceRange_whenQuerySortedByPrice_thenReturnsMatchesCheapestFirst() {
+
+        CatalogPage<ProductSummary> page = snapshot.query(null, false, 120, 450, CatalogSort.PRICE_ASC, CatalogCursor.FIRST_PAGE, 10);
+
+        assertEquals(List.of(tulip, whiteRose, redRose), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void givenInStockOnly_whenQueryByPriceDescending_thenSkipsSoldOutProducts() {
+
+        CatalogPage<ProductSummary> page = snapshot.query(null, true, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.PRICE_DESC, CatalogCursor.FIRST_PAGE, 10);
+
+        assertEquals(List.of(orchid, redRose, tulip), page.items());
+    }
+
+    @Test
+    void givenSmallLimit_whenFollowingCursor_thenPagesCoverEveryProductOnce() {
+
+        CatalogPage<ProductSummary> first = snapshot.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.STOCK_DESC, CatalogCursor.FIRST_PAGE, 3);
+        CatalogPage<ProductSummary> second = snapshot.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.STOCK_DESC, CatalogCursor.decode(first.nextCursor()), 3);
+
+        assertEquals(List.of(tulip, redRose, orchid), first.items());
+        assertEquals(List.of(whiteRose), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void givenCategory_whenQuery_thenOnlyThatCategoryIsReturned() {
+
+        assertEquals(List.of(redRose, whiteRose), snapshot.query("Roses", false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 10).items());
+        assertTrue(snapshot.query("Lilies", false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 10).items().isEmpty());
+    }
+
+    @Test
+    void givenStockChange_whenWithQuantity_thenOnlyTheNewSnapshotSeesIt() {
+
+        CatalogSnapshot patched = snapshot.withQuantity(whiteRose.id(), 4);
+
+        assertEquals(1, snapshot.query("Roses", true, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 10).items().size());
+        assertEquals(2, patched.query("Roses", true, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 10).items().size());
+    }
+
+    @Test
+    void givenUpsertsAndRemovals_whenApplying_thenSnapshotReflectsBoth() {
+
+        ProductSummary lily = product("Lily", "2.00", "Lilies", 1);
+
+        CatalogSnapshot updated = snapshot.applying(List.of(lily), Set.of(orchid.id()));
+
+        assertEquals(List.of(lily, redRose, tulip, whiteRose),
+                updated.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 10).items());
+    }
+
+    @Test
+    void givenNamesInMixedCaseAndAccents_whenSortedByName_thenOrderFollowsCollationAcrossPages() {
+
+        ProductSummary azalea = product("azalea", "1.00", "Shrubs", 1);
+        ProductSummary begonia = product("Begonia", "1.00", "Shrubs", 1);
+        ProductSummary edelweiss = product("Édelweiss", "1.00", "Shrubs", 1);
+        ProductSummary fern = product("fern", "1.00", "Shrubs", 1);
+        CatalogSnapshot mixed = CatalogSnapshot.of(List.of(fern, edelweiss, begonia, azalea));
+
+        CatalogPage<ProductSummary> first = mixed.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.FIRST_PAGE, 2);
+        CatalogPage<ProductSummary> second = mixed.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.NAME, CatalogCursor.decode(first.nextCursor()), 2);
+
+        assertEquals(List.of(azalea, begonia), first.items());
+        assertEquals(List.of(edelweiss, fern), second.items());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void givenUnpricedProduct_whenQueryByPriceDescendingWithMinPrice_thenItIsSkippedAndPricedRowsAreReturned() {
+
+        ProductSummary unpriced = new ProductSummary(UUID.randomUUID(), "Mystery Bouquet", null, "mystery.png", null, "Roses", 4);
+        CatalogSnapshot withUnpriced = CatalogSnapshot.of(List.of(redRose, whiteRose, tulip, orchid, unpriced));
+
+        CatalogPage<ProductSummary> filtered = withUnpriced.query(null, false, 300, Long.MAX_VALUE, CatalogSort.PRICE_DESC, CatalogCursor.FIRST_PAGE, 10);
+        CatalogPage<ProductSummary> unfiltered = withUnpriced.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.PRICE_DESC, CatalogCursor.FIRST_PAGE, 10);
+
+        assertEquals(List.of(orchid, redRose, whiteRose), filtered.items());
+        assertEquals(List.of(orchid, redRose, whiteRose, tulip, unpriced), unfiltered.items());
+    }
+
+    @Test
+    void givenStockChange_whenPagingByStockOnPatchedSnapshot_thenEveryProductAppearsOnce() {
+
+        CatalogSnapshot patched = snapshot.withQuantity(whiteRose.id(), 20).withQuantity(tulip.id(), 0);
+
+        CatalogPage<ProductSummary> first = patched.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.STOCK_DESC, CatalogCursor.FIRST_PAGE, 2);
+        CatalogPage<ProductSummary> second = patched.query(null, false, Long.MIN_VALUE, Long.MAX_VALUE, CatalogSort.STOCK_DESC, CatalogCursor.decode(first.nextCursor()), 2);
+
+        assertEquals(List.of(whiteRose.id(), redRose.id()), first.items().stream().map(ProductSummary::id).toList());
+        assertEquals(List.of(orchid.id(), tulip.id()), second.items().stream().map(ProductSummary::id).toList());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void givenUnknownSort_whenFromParam_thenThrows() {
+
+        assertEquals(CatalogSort.NAME, CatalogSort.fromParam(null));
+        assertThrows(InvalidCatalogQueryException.class, () -> CatalogSort.fromParam("popularity"));
+    }
+
+    private static ProductSummary product(String name, String price, String category, int quantity) {
+
+        return new ProductSummary(UUID.randomUUID(), name, new BigDecimal(price), name + ".png", null, category, quantity);
+    }
+}
@@ -0,0 +1,75 @@
+package app.product;
+
+import app.event.ProductChangedEvent;
+import app.product.catalog.CategoryFacet;
+import app.product.catalog.CategoryFacets;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryFacetsUTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private CategoryFacets categoryFacets;
+
+    private final UUID redRose = UUID.randomUUID();
+    private final UUID whiteRose = UUID.randomUUID();
+    private final UUID tulip = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+
+        when(productRepository.findAllSummaries()).thenReturn(List.of(
+                new ProductSummary(redRose, "Red Rose", BigDecimal.TEN, "red.png", null, "Roses", 5),
+                new ProductSummary(whiteRose, "White Rose", BigDecimal.TEN, "white.png", null, "Roses", 0),
+                new ProductSummary(tulip, "Tulip", BigDecimal.ONE, "tulip.png", null, "Tulips", 2)));
+
+        categoryFacets.rebuild();
+    }
+
+    @Test
+    void whenFacetsAreBuilt_thenCountsArePerCategory() {
+
+        assertEquals(List.of(new CategoryFacet("Roses", 2, 1), new CategoryFacet("Tulips", 1, 1)), categoryFacets.facets());
+        assertEquals(List.of("Roses", "Tulips"), categoryFacets.categories());
+    }
+
+    @Test
+    void whenStockChanges_thenInStockCountFollows() {
+
+        // When
+        categoryFacets.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, whiteRose, "White Rose", null, "Roses", null, null, null, 3));
+        categoryFacets.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, redRose, "Red Rose", null, "Roses", null, null, null, 1));
+
+        // Then
+        assertEquals(new CategoryFacet("Roses", 2, 2), categoryFacets.facets().getFirst());
+    }
+
+    @Test
+    void whenLastProductOfCategoryIsRemoved_thenCategoryDisappears() {
+
+        // When
+        categoryFacets.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.REMOVED, tulip, "Tulip", null, "Tulips", null, null, null, 2));
+        categoryFacets.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.CREATED, UUID.randomUUID(), "Orchid", null, "Orchids", null, null, null, 0));
+
+        // Then
+        assertEquals(List.of("Orchids", "Roses"), categoryFacets.categories());
+        assertEquals(new CategoryFacet("Orchids", 1, 0), categoryFacets.facets().getFirst());
+    }
+}
@@ -0,0 +1,149 @@
+package app.product;
+
+import app.event.ProductChangedEvent;
+import app.product.catalog.CatalogCursor;
+import app.product.catalog.CatalogPage;
+import app.product.catalog.ProductCatalogCache;
+import app.product.model.ProductSummary;
+import app.user.model.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductCatalogCacheUTest {
+
+    private ProductCatalogCache productCatalogCache;
+
+    @BeforeEach
+    void setUp() {
+        productCatalogCache = new ProductCatalogCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void whenSameKeyIsRequestedTwice_thenLoaderRunsOnce() {
+
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> load(loads));
+        productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> load(loads));
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(1, productCatalogCache.stats().hitCount());
+        assertEquals(1, productCatalogCache.stats().missCount());
+    }
+
+    @Test
+    void whenProductChanges_thenOnlyItsCategoryAndTheFullListsAreEvicted() {
+
+        // Given
+        AtomicInteger roses = new AtomicInteger();
+        AtomicInteger tulips = new AtomicInteger();
+        AtomicInteger all = new AtomicInteger();
+
+        productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> load(roses));
+        productCatalogCache.get(UserRole.ADMIN, "Tulips", CatalogCursor.FIRST_PAGE, 50, () -> load(tulips));
+        productCatalogCache.get(UserRole.USER, null, CatalogCursor.FIRST_PAGE, 50, () -> load(all));
+
+        // When
+        productCatalogCache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, UUID.randomUUID(), "Red Rose", null, "Roses", null, null, null, 3));
+
+        productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> load(roses));
+        productCatalogCache.get(UserRole.ADMIN, "Tulips", CatalogCursor.FIRST_PAGE, 50, () -> load(tulips));
+        productCatalogCache.get(UserRole.USER, null, CatalogCursor.FIRST_PAGE, 50, () -> load(all));
+
+        // Then
+        assertEquals(2, roses.get());
+        assertEquals(1, tulips.get());
+        assertEquals(2, all.get());
+    }
+
+    @Test
+    void whenCursorWasNotHandedOut_thenPageIsLoadedButNotCached() {
+
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        productCatalogCache.get(UserRole.USER, "Roses", "made up", 50, () -> load(loads));
+        productCatalogCache.get(UserRole.USER, "Roses", "made up", 50, () -> load(loads));
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, productCatalogCache.stats().missCount());
+    }
+
+    @Test
+    void whenCursorComesFromCachedPage_thenNextPageIsCached() {
+
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 1,
+                () -> new CatalogPage<>(List.of(), CatalogCursor.encode("Red Rose")));
+
+        // When
+        productCatalogCache.get(UserRole.USER, "Roses", "Red Rose", 1, () -> load(loads));
+        productCatalogCache.get(UserRole.USER, "Roses", "Red Rose", 1, () -> load(loads));
+
+        // Then
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenProductChangesDuringLoad_thenStalePageIsNeverServedAfterTheChange() throws Exception {
+
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CatalogPage<ProductSummary> stale = new CatalogPage<>(List.of(), null);
+        CatalogPage<ProductSummary> fresh = new CatalogPage<>(List.of(), null);
+
+        CompletableFuture<CatalogPage<ProductSummary>> inFlight = CompletableFuture.supplyAsync(() ->
+                productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> {
+                    loading.countDown();
+                    await(release);
+                    return stale;
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        productCatalogCache.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, UUID.randomUUID(), "Red Rose", null, "Roses", null, null, null, 3));
+        CatalogPage<ProductSummary> afterChange = productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> fresh);
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(fresh, afterChange);
+        assertSame(fresh, productCatalogCache.get(UserRole.USER, "Roses", CatalogCursor.FIRST_PAGE, 50, () -> stale));
+    }
+
+    private static void await(CountDownLatch latch) {
+
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CatalogPage<ProductSummary> load(AtomicInteger counter) {
+
+        counter.incrementAndGet();
+        return new CatalogPage<>(List.of(new ProductSummary(UUID.randomUUID(), "Product " + counter.get(), BigDecimal.TEN, "image.png", null, "Roses", 1)), null);
+    }
+}
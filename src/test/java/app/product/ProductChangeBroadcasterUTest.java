@@ -0,0 +1,230 @@
+package app.product;
+
+import app.event.ProductChangedEvent;
+import app.exception.TooManySubscribersException;
+import app.product.stream.ProductChangeBroadcaster;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductChangeBroadcasterUTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductChangeBroadcaster broadcaster;
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new ProductChangeBroadcaster(new ObjectMapper().findAndRegisterModules(), meterRegistry, Duration.ofMinutes(30), Duration.ofMillis(50), 2, 4, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void whenProductChanges_thenEverySubscriberGetsEventWithIdAndName() throws Exception {
+
+        // Given
+        RecordingEmitter first = register(new RecordingEmitter());
+        RecordingEmitter second = register(new RecordingEmitter());
+
+        // When
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.QUANTITY_CHANGED));
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.CREATED));
+
+        // Then
+        for (RecordingEmitter emitter : new RecordingEmitter[]{first, second}) {
+            String firstEvent = emitter.next();
+            String secondEvent = emitter.next();
+            assertTrue(firstEvent.contains("id:1\n") && firstEvent.contains("event:quantity_changed\n"), firstEvent);
+            assertTrue(firstEvent.contains("\"name\":\"Red Rose\""), firstEvent);
+            assertTrue(secondEvent.contains("id:2\n") && secondEvent.contains("event:created\n"), secondEvent);
+        }
+    }
+
+    @Test
+    void whenOneSubscriberIsBlocked_thenOthersStillReceiveEvents() throws Exception {
+
+        // Given
+        RecordingEmitter blocked = register(new RecordingEmitter(unblock));
+        RecordingEmitter fast = register(new RecordingEmitter());
+
+        // When
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.QUANTITY_CHANGED));
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.QUANTITY_CHANGED));
+
+        // Then
+        assertTrue(fast.next().contains("id:1\n"));
+        assertTrue(fast.next().contains("id:2\n"));
+        assertTrue(blocked.received.isEmpty());
+    }
+
+    @Test
+    void whenSubscriberQueueOverflows_thenEventIsCountedAsDroppedAndSubscriberIsEvicted() throws Exception {
+
+        // Given
+        RecordingEmitter blocked = register(new RecordingEmitter(unblock));
+        RecordingEmitter fast = register(new RecordingEmitter());
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.QUANTITY_CHANGED));
+            assertTrue(fast.next().contains("id:" + i + "\n"));
+        }
+
+        // Then
+        assertEquals(1, meterRegistry.counter("products.stream.dropped").count());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, blocked.completedWithError.getCount());
+
+        unblock.countDown();
+        assertTrue(blocked.completedWithError.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void whenSendFails_thenDeadSubscriberIsRemoved() throws Exception {
+
+        // Given
+        RecordingEmitter dead = register(new RecordingEmitter(new IOException("Broken pipe")));
+        register(new RecordingEmitter());
+
+        // When
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.REMOVED));
+
+        // Then
+        assertTrue(dead.completedWithError.await(5, TimeUnit.SECONDS));
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1, meterRegistry.counter("products.stream.evicted").count());
+    }
+
+    @Test
+    void whenWriteIsBlockedPastSendTimeout_thenHeartbeatEvictsSubscriber() throws Exception {
+
+        // Given
+        RecordingEmitter blocked = register(new RecordingEmitter(unblock));
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.QUANTITY_CHANGED));
+        assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // When
+        broadcaster.heartbeat();
+
+        // Then
+        assertEquals(0, broadcaster.subscriberCount());
+        assertEquals(1, meterRegistry.counter("products.stream.evicted").count());
+
+        unblock.countDown();
+        assertTrue(blocked.completedWithError.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void whenSubscriberLimitIsReached_thenNewSubscriberIsRefusedUntilOneLeaves() throws Exception {
+
+        // Given
+        RecordingEmitter dead = register(new RecordingEmitter(new IOException("Broken pipe")));
+        register(new RecordingEmitter());
+        register(new RecordingEmitter());
+
+        // When & Then
+        assertThrows(TooManySubscribersException.class, () -> broadcaster.register(new RecordingEmitter()));
+
+        broadcaster.onProductChanged(anEvent(ProductChangedEvent.Type.REMOVED));
+        assertTrue(dead.completedWithError.await(5, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> broadcaster.register(new RecordingEmitter()));
+    }
+
+    private RecordingEmitter register(RecordingEmitter emitter) {
+
+        broadcaster.register(emitter);
+
+        return emitter;
+    }
+
+    private static ProductChangedEvent anEvent(ProductChangedEvent.Type type) {
+
+        return new ProductChangedEvent(type, UUID.randomUUID(), "Red Rose", null, "Roses", BigDecimal.TEN, "rose.png", null, 3);
+    }
+
+    // Records what would be written to the client; can block or fail like a slow or disconnected client.
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completedWithError = new CountDownLatch(1);
+        private final CountDownLatch blockUntil;
+        private final IOException failure;
+
+        RecordingEmitter() {
+            this(null, null);
+        }
+
+        RecordingEmitter(CountDownLatch blockUntil) {
+            this(blockUntil, null);
+        }
+
+        RecordingEmitter(IOException failure) {
+            this(null, failure);
+        }
+
+        private RecordingEmitter(CountDownLatch blockUntil, IOException failure) {
+            this.blockUntil = blockUntil;
+            this.failure = failure;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+
+            sending.countDown();
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+
+            StringBuilder event = new StringBuilder();
+            items.forEach(item -> event.append(item.getData()));
+            received.add(event.toString());
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+
+            completedWithError.countDown();
+        }
+
+        String next() throws InterruptedException {
+
+            String event = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event was sent");
+
+            return event;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package app.product;
+
+import app.exception.InvalidImportException;
+import app.product.model.Product;
+import app.product.repository.ProductRepository;
+import app.product.service.ProductImportService;
+import app.product.service.ProductService;
+import app.web.dto.ProductImportReport;
+import app.web.dto.ProductImportRowResult;
+import app.web.dto.ProductRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceUTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductImportService productImportService;
+
+    @BeforeEach
+    void setUp() {
+
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        lenient().when(productService.toNewProduct(any())).thenAnswer(invocation -> {
+            ProductRequest request = invocation.getArgument(0);
+            return Product.builder().id(UUID.randomUUID()).name(request.getName()).description(request.getDescription()).build();
+        });
+
+        productImportService = new ProductImportService(productRepository, productService, entityManager, transactionTemplate, eventPublisher, new ObjectMapper());
+    }
+
+    @Test
+    void whenCsvFieldIsQuoted_thenCommasQuotesAndLineBreaksStayInsideIt() throws IOException {
+
+        // Given
+        String csv = "name,description,salePrice,quantity,image,category\r\n"
+                + "Red Rose,\"Deep red, long stem\nSays \"\"I love you\"\"\",4.50,10,rose.png,Roses\r\n"
+                + "\r\n"
+                + "White Lily,Plain,3.00,5,lily.png,Lilies\n";
+
+        // When
+        ProductImportReport report = productImportService.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        // Then
+        ArgumentCaptor<ProductRequest> requests = ArgumentCaptor.forClass(ProductRequest.class);
+        verify(productService, times(2)).toNewProduct(requests.capture());
+
+        assertEquals(2, report.getTotal());
+        assertEquals(2, report.getImported());
+        assertEquals("Deep red, long stem\nSays \"I love you\"", requests.getAllValues().getFirst().getDescription());
+        assertEquals("Lilies", requests.getAllValues().get(1).getCategory());
+        assertEquals(List.of(1, 2), report.getRows().stream().map(ProductImportRowResult::getRow).toList());
+    }
+
+    @Test
+    void whenCsvEndsInsideQuotedField_thenImportIsRejected() {
+
+        // Given
+        String csv = "name,description\nRed Rose,\"never closed\n";
+
+        // When & Then
+        assertThrows(InvalidImportException.class, () -> productImportService.importProducts(stream(csv), ProductImportService.Format.CSV));
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void whenNamesDifferOnlyInCase_thenTheyAreDuplicates() throws IOException {
+
+        // Given
+        String json = "["
+                + product("Red Rose") + ","
+                + product("red rose") + ","
+                + product("White Lily") + "]";
+
+        when(productRepository.findExistingNames(anyCollection())).thenReturn(List.of("WHITE LILY"));
+
+        // When
+        ProductImportReport report = productImportService.importProducts(stream(json), ProductImportService.Format.JSON);
+
+        // Then
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(ProductImportRowResult.Status.IMPORTED, report.getRows().get(0).getStatus());
+        assertEquals(ProductImportRowResult.Status.REJECTED, report.getRows().get(1).getStatus());
+        assertEquals(ProductImportRowResult.Status.REJECTED, report.getRows().get(2).getStatus());
+    }
+
+    @Test
+    void whenChunkFailsToSave_thenOnlyTheBadRowFails() throws IOException {
+
+        // Given
+        String json = "["
+                + product("Red Rose") + ","
+                + product("Broken Tulip") + ","
+                + product("White Lily") + "]";
+
+        when(productRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getName().equals("Broken Tulip"))) {
+                throw new DataIntegrityViolationException("Data too long for column 'name'");
+            }
+            return products;
+        });
+
+        // When
+        ProductImportReport report = productImportService.importProducts(stream(json), ProductImportService.Format.JSON);
+
+        // Then
+        assertEquals(3, report.getTotal());
+        assertEquals(2, report.getImported());
+        assertEquals(ProductImportRowResult.Status.IMPORTED, report.getRows().get(0).getStatus());
+        assertEquals(ProductImportRowResult.Status.FAILED, report.getRows().get(1).getStatus());
+        assertEquals(ProductImportRowResult.Status.IMPORTED, report.getRows().get(2).getStatus());
+        verify(productRepository, times(4)).saveAll(any());
+    }
+
+    @Test
+    void whenJsonArrayHasNonObjectElement_thenItIsRejectedAndLaterRowsStillImport() throws IOException {
+
+        // Given
+        String json = "[" + product("Red Rose") + ", 5, [1, 2], " + product("White Lily") + "]";
+
+        // When
+        ProductImportReport report = productImportService.importProducts(stream(json), ProductImportService.Format.JSON);
+
+        // Then
+        assertEquals(4, report.getTotal());
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(ProductImportRowResult.Status.IMPORTED, ProductImportRowResult.Status.REJECTED,
+                        ProductImportRowResult.Status.REJECTED, ProductImportRowResult.Status.IMPORTED),
+                report.getRows().stream().map(ProductImportRowResult::getStatus).toList());
+    }
+
+    @Test
+    void whenJsonArrayIsNotClosedOrHasTrailingContent_thenImportIsRejected() {
+
+        // Given
+        String unclosed = "[" + product("Red Rose");
+        String trailing = "[" + product("Red Rose") + "] {}";
+
+        // When & Then
+        assertThrows(InvalidImportException.class, () -> productImportService.importProducts(stream(unclosed), ProductImportService.Format.JSON));
+        assertThrows(InvalidImportException.class, () -> productImportService.importProducts(stream(trailing), ProductImportService.Format.JSON));
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    private static String product(String name) {
+
+        return "{\"name\":\"" + name + "\",\"salePrice\":\"4.50\",\"quantity\":\"3\",\"image\":\"flower.png\",\"category\":\"Roses\"}";
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package app.product;
+
+import app.product.repository.ProductRepository;
+import app.product.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ProductSearchIndexUTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    private final UUID redRoses = UUID.randomUUID();
+    private final UUID whiteLily = UUID.randomUUID();
+    private final UUID mixedBouquet = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+
+        productSearchIndex = new ProductSearchIndex(mock(ProductRepository.class));
+
+        productSearchIndex.index(redRoses, "Red Roses", "Twelve long stem red roses", "Roses", 10);
+        productSearchIndex.index(whiteLily, "White Lily", "A single white lily", "Lilies", 4);
+        productSearchIndex.index(mixedBouquet, "Mixed Bouquet", "Lilies, tulips and a red rose", "Bouquets", 2);
+    }
+
+    @Test
+    void whenSearchingASingularTerm_thenPluralDocumentsMatchAndNameMatchesRankFirst() {
+
+        // When
+        List<UUID> result = productSearchIndex.search("rose", false, 10);
+
+        // Then
+        assertEquals(List.of(redRoses, mixedBouquet), result);
+    }
+
+    @Test
+    void whenProductIsRemoved_thenItIsNoLongerFound() {
+
+        // When
+        productSearchIndex.remove(whiteLily);
+
+        // Then
+        assertEquals(List.of(mixedBouquet), productSearchIndex.search("lily", false, 10));
+    }
+
+    @Test
+    void whenProductIsOutOfStock_thenItIsHiddenFromInStockSearches() {
+
+        // When
+        productSearchIndex.updateStock(mixedBouquet, 0);
+
+        // Then
+        assertEquals(List.of(redRoses), productSearchIndex.search("red", true, 10));
+        assertEquals(2, productSearchIndex.search("red", false, 10).size());
+    }
+
+    @Test
+    void whenQueryHasNoTerms_thenResultIsEmpty() {
+
+        assertTrue(productSearchIndex.search("  the  ", false, 10).isEmpty());
+    }
+}
@@ -0,0 +1,281 @@
+package app.product;
+
+import app.event.ProductChangedEvent;
+import app.exception.InvalidCatalogQueryException;
+import app.exception.InvalidCursorException;
+import app.exception.InvalidImageException;
+import app.exception.InvalidQuantityException;
+import app.image.service.ImageStore;
+import app.inventory.service.InventoryLedger;
+import app.product.catalog.CatalogCursor;
+import app.product.catalog.CatalogPage;
+import app.product.catalog.CatalogSnapshotHolder;
+import app.product.catalog.CategoryFacets;
+import app.product.catalog.ProductCatalogCache;
+import app.product.model.Product;
+import app.product.model.ProductSummary;
+import app.product.repository.ProductRepository;
+import app.product.search.ProductSearchIndex;
+import app.product.search.ProductSuggestions;
+import app.product.service.ProductService;
+import app.user.model.UserRole;
+import app.web.dto.BulkQuantityUpdateResponse;
+import app.web.dto.ProductRequest;
+import app.web.dto.QuantityUpdateEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductServiceUTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ProductSuggestions productSuggestions;
+    @Mock
+    private CategoryFacets categoryFacets;
+    @Mock
+    private CatalogSnapshotHolder catalogSnapshotHolder;
+    @Mock
+    private ImageStore imageStore;
+    @Mock
+    private InventoryLedger inventoryLedger;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProductService productService;
+
+    @Test
+    void whenQuantityUpdateNamesDifferInCase_thenProductIsStillUpdated() {
+
+        // Given
+        Product rose = aProduct("Red Rose", "Roses");
+        QuantityUpdateEntry entry = QuantityUpdateEntry.builder().name("RED ROSE").category("Roses").quantity(7).build();
+
+        when(productRepository.findAllByNameIn(List.of("RED ROSE"))).thenReturn(List.of(rose));
+
+        // When
+        BulkQuantityUpdateResponse response = productService.updateProductQuantities(List.of(entry), UserRole.ADMIN);
+
+        // Then
+        assertEquals(1, response.getUpdated());
+        assertTrue(response.getNotFound().isEmpty());
+        verify(inventoryLedger).set(rose.getId(), 7);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.of(ProductChangedEvent.Type.QUANTITY_CHANGED, rose).withCurrentQuantity(7));
+    }
+
+    @Test
+    void whenQuantityUpdateIsNegative_thenNoLevelIsSet() {
+
+        // Given
+        List<QuantityUpdateEntry> entries = List.of(
+                QuantityUpdateEntry.builder().productId(UUID.randomUUID()).quantity(4).build(),
+                QuantityUpdateEntry.builder().productId(UUID.randomUUID()).quantity(-1).build());
+
+        // When & Then
+        assertThrows(InvalidQuantityException.class, () -> productService.updateProductQuantities(entries, UserRole.ADMIN));
+        verify(inventoryLedger, never()).set(any(), anyInt());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void whenQuantityUpdateHasNullEntry_thenItIsRejectedInsteadOfFailing() {
+
+        // Given
+        List<QuantityUpdateEntry> entries = Arrays.asList(
+                QuantityUpdateEntry.builder().productId(UUID.randomUUID()).quantity(4).build(),
+                null);
+
+        // When & Then
+        assertThrows(InvalidQuantityException.class, () -> productService.updateProductQuantities(entries, UserRole.ADMIN));
+        verify(inventoryLedger, never()).set(any(), anyInt());
+    }
+
+    @Test
+    void whenQuantityUpdateNameIsUnknown_thenEntryIsReportedNotFound() {
+
+        // Given
+        QuantityUpdateEntry entry = QuantityUpdateEntry.builder().name("Blue Rose").quantity(3).build();
+
+        when(productRepository.findAllByNameIn(List.of("Blue Rose"))).thenReturn(List.of());
+
+        // When
+        BulkQuantityUpdateResponse response = productService.updateProductQuantities(List.of(entry), UserRole.ADMIN);
+
+        // Then
+        assertEquals(0, response.getUpdated());
+        assertEquals(List.of(entry), response.getNotFound());
+        verify(inventoryLedger, never()).set(any(), anyInt());
+    }
+
+    @Test
+    void whenNewProductHasUnknownImageHash_thenItIsRejectedAsBadRequest() {
+
+        // Given
+        ProductRequest request = ProductRequest.builder()
+                .name("Red Rose")
+                .salePrice(BigDecimal.TEN)
+                .quantity(3)
+                .category("Roses")
+                .imageHash("a".repeat(64))
+                .build();
+
+        when(imageStore.exists(request.getImageHash())).thenReturn(false);
+
+        // When & Then
+        assertThrows(InvalidImageException.class, () -> productService.createNewProduct(request));
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void whenNewProductHasNeitherImageNorImageHash_thenItIsRejected() {
+
+        // Given
+        ProductRequest request = ProductRequest.builder()
+                .name("Red Rose")
+                .salePrice(BigDecimal.TEN)
+                .quantity(3)
+                .category("Roses")
+                .image(" ")
+                .build();
+
+        // When & Then
+        assertThrows(InvalidImageException.class, () -> productService.createNewProduct(request));
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void whenNewProductCategoryIsAFixedRoute_thenItIsRejected() {
+
+        // Given
+        ProductRequest request = ProductRequest.builder()
+                .name("Red Rose")
+                .salePrice(BigDecimal.TEN)
+                .quantity(3)
+                .category("Export")
+                .image("rose.png")
+                .build();
+
+        // When & Then
+        assertThrows(InvalidCatalogQueryException.class, () -> productService.createNewProduct(request));
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void whenPriceFilterDoesNotFitInMinorUnits_thenQueryIsRejected() {
+
+        // Given
+        BigDecimal huge = new BigDecimal("1e30");
+
+        // When & Then
+        assertThrows(InvalidCatalogQueryException.class, () -> productService.queryCatalog(null, null, huge, "price_asc", UserRole.USER, null, 10));
+        assertThrows(InvalidCatalogQueryException.class, () -> productService.queryCatalog(null, huge.negate(), null, "price_asc", UserRole.USER, null, 10));
+        verifyNoInteractions(catalogSnapshotHolder);
+    }
+
+    @Test
+    void whenCatalogHasMoreRowsThanLimit_thenPageEndsAtLimitWithCursorOnItsLastName() {
+
+        // Given
+        loadThroughCatalogCache();
+        when(productRepository.findInStockPage(eq(CatalogCursor.FIRST_PAGE), any(Pageable.class)))
+                .thenReturn(List.of(aSummary("Lily"), aSummary("Orchid"), aSummary("Rose")));
+
+        // When
+        CatalogPage<ProductSummary> page = productService.getAllProducts(UserRole.USER, null, 2);
+
+        // Then
+        assertEquals(List.of("Lily", "Orchid"), page.items().stream().map(ProductSummary::name).toList());
+        assertEquals("Orchid", CatalogCursor.decode(page.nextCursor()));
+        verify(productRepository).findInStockPage(CatalogCursor.FIRST_PAGE, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void whenCursorIsFollowedToLastPage_thenNoNextCursorIsReturned() {
+
+        // Given
+        loadThroughCatalogCache();
+        when(productRepository.findCategoryPage(eq("Roses"), eq("Orchid"), any(Pageable.class)))
+                .thenReturn(List.of(aSummary("Rose")));
+
+        // When
+        CatalogPage<ProductSummary> page = productService.getProductsByCategory("Roses", UserRole.ADMIN, CatalogCursor.encode("Orchid"), 2);
+
+        // Then
+        assertEquals(List.of("Rose"), page.items().stream().map(ProductSummary::name).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void whenCursorIsNotValidBase64_thenRequestIsRejectedBeforeAnyQuery() {
+
+        // When & Then
+        assertThrows(InvalidCursorException.class, () -> productService.getAllProducts(UserRole.USER, "not*a*cursor", 10));
+        assertThrows(InvalidCursorException.class, () -> productService.getProductsByCategory("Roses", UserRole.USER, "%%%", 10));
+        verifyNoInteractions(productRepository, productCatalogCache);
+    }
+
+    @Test
+    void whenLimitIsAboveMaximum_thenItIsClampedTo200() {
+
+        // Given
+        loadThroughCatalogCache();
+        when(productRepository.findPage(eq(CatalogCursor.FIRST_PAGE), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        productService.getAllProducts(UserRole.ADMIN, null, 10_000);
+
+        // Then
+        verify(productRepository).findPage(CatalogCursor.FIRST_PAGE, PageRequest.of(0, ProductService.MAX_PAGE_SIZE + 1));
+        verify(productCatalogCache).get(eq(UserRole.ADMIN), isNull(), eq(CatalogCursor.FIRST_PAGE), eq(200), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadThroughCatalogCache() {
+
+        when(productCatalogCache.get(any(), any(), any(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<CatalogPage<ProductSummary>>>getArgument(4).get());
+    }
+
+    private static ProductSummary aSummary(String name) {
+
+        return new ProductSummary(UUID.randomUUID(), name, BigDecimal.TEN, name + ".png", null, "Roses", 3);
+    }
+
+    private static Product aProduct(String name, String category) {
+
+        return Product.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .salePrice(BigDecimal.TEN)
+                .currentQuantity(3)
+                .category(category)
+                .inactive(false)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package app.product;
+
+import app.product.repository.ProductRepository;
+import app.product.search.ProductSuggestion;
+import app.product.search.ProductSuggestions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ProductSuggestionsUTest {
+
+    private ProductSuggestions productSuggestions;
+
+    private final UUID redRose = UUID.randomUUID();
+    private final UUID whiteRose = UUID.randomUUID();
+    private final UUID rosemary = UUID.randomUUID();
+    private final UUID tulip = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+
+        productSuggestions = new ProductSuggestions(mock(ProductRepository.class));
+
+        productSuggestions.add(new ProductSuggestion(redRose, "Red Rose", "Roses", 5));
+        productSuggestions.add(new ProductSuggestion(whiteRose, "White Rose", "Roses", 0));
+        productSuggestions.add(new ProductSuggestion(rosemary, "Rosemary", "Herbs", 12));
+        productSuggestions.add(new ProductSuggestion(tulip, "Tulip", "Tulips", 9));
+    }
+
+    @Test
+    void whenPrefixMatchesAnyWordOfTheName_thenSuggestionsAreRankedByStock() {
+
+        assertEquals(List.of(rosemary, redRose, whiteRose), ids(productSuggestions.suggest("Ros", false, 10)));
+    }
+
+    @Test
+    void whenSuggestingForStorefront_thenOutOfStockProductsAreSkipped() {
+
+        assertEquals(List.of(rosemary, redRose), ids(productSuggestions.suggest("rose", true, 10)));
+    }
+
+    @Test
+    void whenStockChanges_thenRankingFollows() {
+
+        // When
+        productSuggestions.updateStock(whiteRose, 20);
+
+        // Then
+        assertEquals(List.of(whiteRose, rosemary, redRose), ids(productSuggestions.suggest("rose", true, 10)));
+    }
+
+    @Test
+    void whenProductIsRemoved_thenItIsNoLongerSuggested() {
+
+        // When
+        productSuggestions.remove(rosemary);
+
+        // Then
+        assertEquals(List.of(redRose, whiteRose), ids(productSuggestions.suggest("ro", false, 10)));
+        assertTrue(productSuggestions.suggest("rosem", false, 10).isEmpty());
+    }
+
+    @Test
+    void whenLimitIsSmallerThanMatches_thenOnlyTheBestAreReturned() {
+
+        assertEquals(List.of(rosemary), ids(productSuggestions.suggest("r", false, 1)));
+    }
+
+    private static List<UUID> ids(List<ProductSuggestion> suggestions) {
+
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+}
@@ -0,0 +1,110 @@
+package app.web;
+
+import app.image.model.ImageType;
+import app.image.model.StoredImage;
+import app.image.service.ImageStore;
+import app.image.service.ImageVariantService;
+import app.security.AuthenticationMetadata;
+import app.security.JWTService;
+import app.user.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ImageController.class)
+public class ImageControllerApiTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+
+    @MockitoBean
+    private ImageStore imageStore;
+
+    @MockitoBean
+    private ImageVariantService imageVariantService;
+
+    @MockitoBean
+    private JWTService jwtService;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TempDir
+    Path root;
+
+    private final AuthenticationMetadata principal = new AuthenticationMetadata(UUID.randomUUID(), "user@test.com", "123123", UserRole.USER);
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        Path file = Files.write(root.resolve(HASH), PNG);
+
+        when(imageStore.find(HASH)).thenReturn(Optional.of(new StoredImage(HASH, file, PNG.length, ImageType.PNG)));
+    }
+
+    @Test
+    void getImage_shouldReturnWholeFileWithCacheHeaders() throws Exception {
+
+        mockMvc.perform(get("/api/v1/images/" + HASH).with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(PNG.length)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    void getImageWithRange_shouldReturnOnlyThatSlice() throws Exception {
+
+        mockMvc.perform(get("/api/v1/images/" + HASH).header(HttpHeaders.RANGE, "bytes=1-3").with(user(principal)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + PNG.length))
+                .andExpect(content().bytes(new byte[]{'P', 'N', 'G'}));
+    }
+
+    @Test
+    void getImageWithMalformedRange_shouldIgnoreItAndReturnWholeFile() throws Exception {
+
+        mockMvc.perform(get("/api/v1/images/" + HASH).header(HttpHeaders.RANGE, "items=0-3").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    void getImageWithUnsatisfiableRange_shouldReturn416() throws Exception {
+
+        mockMvc.perform(get("/api/v1/images/" + HASH).header(HttpHeaders.RANGE, "bytes=100-").with(user(principal)))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PNG.length));
+    }
+
+    @Test
+    void getImageWithMatchingETag_shouldReturn304() throws Exception {
+
+        mockMvc.perform(get("/api/v1/images/" + HASH).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"").with(user(principal)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+}
@@ -0,0 +1,215 @@
+package app.web;
+
+import app.event.ProductChangedEvent;
+import app.product.catalog.CatalogPage;
+import app.product.catalog.CatalogVersion;
+import app.product.model.ProductSummary;
+import app.product.service.ProductArchiveService;
+import app.product.service.ProductExportService;
+import app.product.service.ProductImportService;
+import app.product.service.ProductService;
+import app.product.stream.ProductChangeBroadcaster;
+import app.security.AuthenticationMetadata;
+import app.security.JWTService;
+import app.user.model.UserRole;
+import app.web.dto.BulkQuantityUpdateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductController.class)
+@Import(CatalogVersion.class)
+public class ProductControllerApiTest {
+
+    @MockitoBean
+    private ProductService productService;
+
+    @MockitoBean
+    private ProductExportService productExportService;
+
+    @MockitoBean
+    private ProductImportService productImportService;
+
+    @MockitoBean
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @MockitoBean
+    private ProductArchiveService productArchiveService;
+
+    @MockitoBean
+    private JWTService jwtService;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AuthenticationMetadata principal = new AuthenticationMetadata(UUID.randomUUID(), "user@test.com", "123123", UserRole.USER);
+
+    @BeforeEach
+    void setUp() {
+
+        ProductSummary product = new ProductSummary(UUID.randomUUID(), "Red Rose", BigDecimal.TEN, "rose.png", null, "Roses", 3);
+
+        when(productService.getAllProducts(UserRole.USER, null, null)).thenReturn(new CatalogPage<>(List.of(product), "next"));
+    }
+
+    @Test
+    void getRequestToProducts_shouldReturnPageWithETagAndNextCursor() throws Exception {
+
+        mockMvc.perform(get("/api/v1/products").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("[0].name").value("Red Rose"))
+                .andExpect(jsonPath("[0].description").doesNotExist());
+    }
+
+    @Test
+    void getRequestToProducts_shouldReturnNotModifiedWhenCatalogIsUnchanged() throws Exception {
+
+        MvcResult first = mockMvc.perform(get("/api/v1/products").with(user(principal)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String eTag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", eTag).with(user(principal)))
+                .andExpect(status().isNotModified());
+
+        verify(productService, times(1)).getAllProducts(UserRole.USER, null, null);
+    }
+
+    @Test
+    void getRequestToProducts_shouldReturnFreshPageAfterCatalogChange() throws Exception {
+
+        MvcResult first = mockMvc.perform(get("/api/v1/products").with(user(principal)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String eTag = first.getResponse().getHeader("ETag");
+
+        catalogVersion.onProductChanged(new ProductChangedEvent(ProductChangedEvent.Type.QUANTITY_CHANGED, UUID.randomUUID(), "Red Rose", null, "Roses", null, null, null, 2));
+
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", eTag).with(user(principal)))
+                .andExpect(status().isOk());
+
+        verify(productService, times(2)).getAllProducts(UserRole.USER, null, null);
+    }
+
+    @Test
+    void getRequestToStream_shouldOpenAsyncEventStream() throws Exception {
+
+        when(productChangeBroadcaster.subscribe()).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/products/stream").with(user(principal)))
+                .andExpect(request().asyncStarted());
+
+        verify(productChangeBroadcaster, times(1)).subscribe();
+    }
+
+    @Test
+    void putRequestToQuantities_shouldApplyValidEntries() throws Exception {
+
+        AuthenticationMetadata admin = new AuthenticationMetadata(UUID.randomUUID(), "admin@test.com", "123123", UserRole.ADMIN);
+
+        when(productService.updateProductQuantities(any(), eq(UserRole.ADMIN))).thenReturn(new BulkQuantityUpdateResponse(1, List.of()));
+
+        mockMvc.perform(put("/api/v1/products/quantities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entries\":[{\"name\":\"Red Rose\",\"quantity\":7}]}")
+                        .with(user(admin))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("updated").value(1));
+    }
+
+    @Test
+    void putRequestToQuantities_shouldRejectNegativeQuantity() throws Exception {
+
+        AuthenticationMetadata admin = new AuthenticationMetadata(UUID.randomUUID(), "admin@test.com", "123123", UserRole.ADMIN);
+
+        mockMvc.perform(put("/api/v1/products/quantities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entries\":[{\"name\":\"Red Rose\",\"quantity\":-3}]}")
+                        .with(user(admin))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).updateProductQuantities(any(), any());
+    }
+
+    @Test
+    void putRequestToQuantities_shouldRejectNullEntry() throws Exception {
+
+        AuthenticationMetadata admin = new AuthenticationMetadata(UUID.randomUUID(), "admin@test.com", "123123", UserRole.ADMIN);
+
+        mockMvc.perform(put("/api/v1/products/quantities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"entries\":[null]}")
+                        .with(user(admin))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).updateProductQuantities(any(), any());
+    }
+
+    @Test
+    void getRequestToExport_shouldStreamOneJsonObjectPerLine() throws Exception {
+
+        AuthenticationMetadata admin = new AuthenticationMetadata(UUID.randomUUID(), "admin@test.com", "123123", UserRole.ADMIN);
+
+        when(productExportService.exportProducts(any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"name\":\"Red Rose\"}\n{\"name\":\"Tulip\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products/export").with(user(admin)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("application/x-ndjson")))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.ndjson\""))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("Red Rose", objectMapper.readTree(lines[0]).get("name").asText());
+        assertEquals("Tulip", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+}
@@ -3,15 +3,20 @@ package app.web.mapper;
 import app.basket.model.Basket;
 import app.basket.model.BasketItem;
 import app.product.model.Product;
+import app.product.model.ProductSummary;
 import app.web.dto.BasketItemResponse;
 import app.web.dto.BasketResponse;
 import app.web.dto.ProductResponse;
+import app.web.dto.ProductSummaryResponse;
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class DtoMapperUTest {
 
@@ -35,17 +40,20 @@ public class DtoMapperUTest {
                 .id(UUID.randomUUID())
                 .product(product1)
                 .quantity(2)
+                .unitPriceMinor(1000)
+                .reservedUntil(LocalDateTime.of(2025, 3, 1, 12, 30))
                 .build();
 
         BasketItem item2 = BasketItem.builder()
                 .id(UUID.randomUUID())
                 .product(product2)
                 .quantity(3)
+                .unitPriceMinor(550)
                 .build();
 
         Basket basket = Basket.builder()
                 .items(List.of(item1, item2))
-                .totalPrice(new BigDecimal("36.50"))
+                .totalPriceMinor(3650)
                 .build();
 
         // When
@@ -61,6 +69,7 @@ public class DtoMapperUTest {
         assertEquals(product1.getImage(), firstItem.getImage());
         assertEquals(item1.getQuantity(), firstItem.getQuantity());
         assertEquals(product1.getSalePrice().multiply(BigDecimal.valueOf(item1.getQuantity())), firstItem.getItemTotalPrice());
+        assertEquals(item1.getReservedUntil(), firstItem.getReservedUntil());
 
         BasketItemResponse secondItem = basketResponse.getItems().get(1);
         assertEquals(item2.getId(), secondItem.getBasketId());
@@ -70,7 +79,7 @@ public class DtoMapperUTest {
         assertEquals(item2.getQuantity(), secondItem.getQuantity());
         assertEquals(product2.getSalePrice().multiply(BigDecimal.valueOf(item2.getQuantity())), secondItem.getItemTotalPrice());
 
-        assertEquals(basket.getTotalPrice(), basketResponse.getTotalPrice());
+        assertEquals(new BigDecimal("36.50"), basketResponse.getTotalPrice());
     }
 
     @Test
@@ -100,4 +109,36 @@ public class DtoMapperUTest {
         assertEquals(product.getCurrentQuantity(), response.getCurrentQuantity());
     }
 
+    @Test
+    void whenProductSummaryIsMapped_thenProductSummaryResponseIsCorrect() {
+
+        // Given
+        ProductSummary product = new ProductSummary(UUID.randomUUID(), "Laptop", new BigDecimal("999.99"), "laptop.png", null, "Electronics", 7);
+
+        // When
+        ProductSummaryResponse response = DtoMapper.toProductSummaryResponse(product);
+
+        // Then
+        assertEquals(product.id(), response.getId());
+        assertEquals(product.name(), response.getName());
+        assertEquals(product.salePrice(), response.getSalePrice());
+        assertEquals(product.category(), response.getCategoryName());
+        assertEquals(product.image(), response.getImage());
+        assertEquals(product.currentQuantity(), response.getCurrentQuantity());
+        assertNull(response.getImageVariants());
+    }
+
+    @Test
+    void givenImageHash_whenToImageVariantUrls_thenReturnsUrlPerVariant() {
+
+        // Given
+        String hash = "a".repeat(64);
+
+        // When
+        Map<String, String> urls = DtoMapper.toImageVariantUrls(hash);
+
+        // Then
+        assertEquals(List.of("thumb", "detail", "retina"), List.copyOf(urls.keySet()));
+        assertEquals("/api/v1/images/" + hash + "/thumb", urls.get("thumb"));
+    }
 }